@@ -0,0 +1,102 @@
+package com.itccompliance.oi.api;
+
+import com.itccompliance.oi.api.dto.CreateOrderBatchRequest;
+import com.itccompliance.oi.api.dto.CreateOrderRequest;
+import com.itccompliance.oi.api.dto.OrderBatchResponse;
+import com.itccompliance.oi.api.dto.OrderBatchResult;
+import com.itccompliance.oi.api.mapper.OrderMapper;
+import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.service.OrderOutcome;
+import com.itccompliance.oi.domain.service.OrderService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/orders")
+public class OrderBatchController {
+
+    private final OrderService orderService;
+    private final OrderMapper orderMapper;
+    private final Validator validator;
+
+    public OrderBatchController(OrderService orderService, OrderMapper orderMapper, Validator validator) {
+        this.orderService = orderService;
+        this.orderMapper = orderMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Creates up to 1000 orders in one transaction. Each order is accepted or rejected on its own;
+     * the response lists a result per order, in request order, with the status {@code POST /orders}
+     * would have returned for it ({@code 201}, {@code 400}, {@code 404} or {@code 409}).
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResponse> createOrders(@RequestBody @Valid CreateOrderBatchRequest request) {
+        List<CreateOrderRequest> orders = request.orders();
+        OrderBatchResult[] results = new OrderBatchResult[orders.size()];
+        List<CreateOrderRequest> valid = new ArrayList<>(orders.size());
+        List<Integer> validIndexes = new ArrayList<>(orders.size());
+
+        for (int i = 0; i < orders.size(); i++) {
+            String violations = violations(orders.get(i));
+            if (violations == null) {
+                valid.add(orders.get(i));
+                validIndexes.add(i);
+            } else {
+                results[i] = rejected(i, HttpStatus.BAD_REQUEST, violations);
+            }
+        }
+
+        int accepted = 0;
+        if (!valid.isEmpty()) {
+            Iterator<Integer> indexes = validIndexes.iterator();
+            for (OrderOutcome outcome : orderService.createOrders(valid)) {
+                int index = indexes.next();
+                if (outcome.isAccepted()) {
+                    results[index] = new OrderBatchResult(index, HttpStatus.CREATED.value(),
+                            orderMapper.toOrderResponse(outcome.order()), null, null);
+                    accepted++;
+                } else {
+                    results[index] = rejected(index, statusOf(outcome.rejection()), outcome.rejection().getMessage());
+                }
+            }
+        }
+
+        return ResponseEntity.ok(new OrderBatchResponse(accepted, results.length - accepted, List.of(results)));
+    }
+
+    private String violations(CreateOrderRequest order) {
+        if (order == null) {
+            return "order: must not be null";
+        }
+        Set<ConstraintViolation<CreateOrderRequest>> violations = validator.validate(order);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static HttpStatus statusOf(RuntimeException rejection) {
+        return rejection instanceof ProductNotFoundException ? HttpStatus.NOT_FOUND : HttpStatus.CONFLICT;
+    }
+
+    private static OrderBatchResult rejected(int index, HttpStatus status, String message) {
+        return new OrderBatchResult(index, status.value(), null, status.getReasonPhrase(), message);
+    }
+}
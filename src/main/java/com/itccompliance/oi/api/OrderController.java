@@ -1,28 +1,46 @@
 package com.itccompliance.oi.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.itccompliance.oi.api.dto.CreateOrderRequest;
 import com.itccompliance.oi.api.dto.OrderResponse;
+import com.itccompliance.oi.api.dto.OrderStatsResponse;
 import com.itccompliance.oi.api.mapper.OrderMapper;
 import com.itccompliance.oi.domain.model.Order;
 import com.itccompliance.oi.domain.model.OrderStatus;
 import com.itccompliance.oi.domain.service.OrderService;
 import jakarta.validation.Valid;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/orders")
 public class OrderController {
 
+    static final String NDJSON_VALUE = "application/x-ndjson";
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final OrderService orderService;
     private final OrderMapper orderMapper;
+    private final ObjectWriter ndjsonWriter;
 
-    public OrderController(OrderService orderService, OrderMapper orderMapper) {
+    public OrderController(OrderService orderService, OrderMapper orderMapper, ObjectMapper objectMapper) {
         this.orderService = orderService;
         this.orderMapper = orderMapper;
+        this.ndjsonWriter = objectMapper.writerFor(OrderResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     @PostMapping
@@ -35,31 +53,98 @@ public class OrderController {
         return ResponseEntity
                 .status(HttpStatus.CREATED)
                 .header("Location", "/orders/" + order.getId())
+                .eTag(eTag(order.getId(), order.getStatus()))
                 .body(response);
     }
 
+    @GetMapping("/stats")
+    public ResponseEntity<OrderStatsResponse> getOrderStats() {
+        Map<OrderStatus, Long> byStatus = orderService.getOrderCountsByStatus();
+        long total = byStatus.values().stream().mapToLong(Long::longValue).sum();
+        return ResponseEntity.ok(new OrderStatsResponse(total, byStatus));
+    }
+
+    /**
+     * Supports {@code If-None-Match}: when the order's current status is known in memory and
+     * matches the client's tag, {@code 304} is returned without loading the order.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrder(@PathVariable Long id) {
+    public ResponseEntity<OrderResponse> getOrder(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            OrderStatus knownStatus = orderService.knownStatus(id);
+            if (knownStatus != null && matchesAny(ifNoneMatch, eTag(id, knownStatus))) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag(id, knownStatus)).build();
+            }
+        }
+
         Order order = orderService.getOrder(id);
         OrderResponse response = orderMapper.toOrderResponse(order);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().eTag(eTag(id, order.getStatus())).body(response);
     }
 
-    @GetMapping
+    /**
+     * One page of orders in id order. When the page is full, a {@code Link} header with
+     * {@code rel="next"} points at the following page.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<List<OrderResponse>> getOrdersByStatus(
-            @RequestParam(required = false) OrderStatus status) {
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "100") int limit) {
 
-        List<Order> orders;
-        if (status != null) {
-            orders = orderService.getOrdersByStatus(status);
-        } else {
-            orders = orderService.getAllOrders();
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
         }
 
+        List<Order> orders = orderService.getOrdersPage(status, after, limit);
+
         List<OrderResponse> responses = orders.stream()
                 .map(orderMapper::toOrderResponse)
                 .toList();
 
-        return ResponseEntity.ok(responses);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == limit) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", orders.get(orders.size() - 1).getId())
+                    .replaceQueryParam("limit", limit)
+                    .build()
+                    .toUriString();
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(responses);
+    }
+
+    /**
+     * Every matching order as newline-delimited JSON, written as it is read from the database.
+     */
+    @GetMapping(produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByStatus(
+            @RequestParam(required = false) OrderStatus status) {
+
+        StreamingResponseBody body = out -> orderService.streamOrders(status, order -> {
+            try {
+                ndjsonWriter.writeValue(out, orderMapper.toOrderResponse(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_VALUE))
+                .body(body);
+    }
+
+    /** An order's representation only changes with its status. */
+    static String eTag(Long id, OrderStatus status) {
+        return "\"" + id + "-" + status.name() + "\"";
+    }
+
+    private static boolean matchesAny(String ifNoneMatch, String current) {
+        ETag currentTag = ETag.create(current);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(candidate -> candidate.isWildcard() || candidate.compare(currentTag, false));
     }
 }
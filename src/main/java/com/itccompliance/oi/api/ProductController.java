@@ -35,10 +35,15 @@ public class ProductController {
                 .body(createdProduct);
     }
 
+    /**
+     * The product is assembled from the catalog cache and in-memory stock, so a matching
+     * {@code If-None-Match} is answered with {@code 304} without touching the database or
+     * serializing the body.
+     */
     @GetMapping("/{sku}")
     public ResponseEntity<Product> getBySku(@PathVariable String sku) {
         Product product = productService.getBySku(sku);
-        return ResponseEntity.ok(product);
+        return ResponseEntity.ok().eTag(eTag(product)).body(product);
     }
 
     @GetMapping("/low-stock")
@@ -55,4 +60,9 @@ public class ProductController {
         Product updatedProduct = productService.updateProduct(sku, updateRequest);
         return ResponseEntity.ok(updatedProduct);
     }
-}
\ No newline at end of file
+
+    /** Catalog changes bump the version; stock changes show in the quantity. */
+    static String eTag(Product product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "-" + product.getAvailableQuantity() + "\"";
+    }
+}
@@ -0,0 +1,97 @@
+package com.itccompliance.oi.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.itccompliance.oi.api.dto.CreateProductRequest;
+import com.itccompliance.oi.api.dto.ProductImportEvent;
+import com.itccompliance.oi.domain.service.ProductImportListener;
+import com.itccompliance.oi.domain.service.ProductImportResult;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+import com.itccompliance.oi.domain.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Validator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/products")
+public class ProductImportController {
+
+    static final String CSV_VALUE = "text/csv";
+
+    private static final int READ_BUFFER = 64 * 1024;
+
+    private final ProductImportService importService;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectWriter eventWriter;
+
+    public ProductImportController(ProductImportService importService, Validator validator,
+                                   ObjectMapper objectMapper) {
+        this.importService = importService;
+        this.validator = validator;
+        this.requestReader = objectMapper.readerFor(CreateProductRequest.class);
+        this.eventWriter = objectMapper.writerFor(ProductImportEvent.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Imports products from a CSV or NDJSON body of any size. The response is NDJSON written while
+     * the body is still being read: a {@code rejected} line for each row that was not imported,
+     * a {@code progress} line at regular intervals and a final {@code completed} line with totals.
+     */
+    @PostMapping(path = "/import", consumes = {CSV_VALUE, OrderController.NDJSON_VALUE},
+            produces = OrderController.NDJSON_VALUE)
+    public void importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        BufferedReader body = new BufferedReader(new InputStreamReader(request.getInputStream(), charset), READ_BUFFER);
+        ProductImportReader rows = contentType.isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))
+                ? ProductImportReader.csv(body, validator)
+                : ProductImportReader.ndjson(body, requestReader, validator);
+
+        response.setContentType(OrderController.NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+
+        ProductImportResult result = importService.importProducts(rows, new ProductImportListener() {
+            @Override
+            public void rejected(ProductImportRow row, String reason) {
+                write(out, ProductImportEvent.rejected(row, reason), false);
+            }
+
+            @Override
+            public void progress(ProductImportResult soFar) {
+                write(out, ProductImportEvent.progress(soFar), true);
+            }
+        });
+        write(out, ProductImportEvent.completed(result), true);
+    }
+
+    private void write(OutputStream out, ProductImportEvent event, boolean flush) {
+        try {
+            eventWriter.writeValue(out, event);
+            out.write('\n');
+            if (flush) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
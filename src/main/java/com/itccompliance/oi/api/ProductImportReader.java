@@ -0,0 +1,162 @@
+package com.itccompliance.oi.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.itccompliance.oi.api.dto.CreateProductRequest;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads an import document line by line, turning each line into a {@link ProductImportRow}.
+ * <p>
+ * CSV lines hold {@code sku,name,price,availableQuantity}, optionally quoted with {@code "} and
+ * preceded by a header line; NDJSON lines hold a {@link CreateProductRequest}. Either way every row
+ * is validated with the same constraints as {@code POST /products}. Lines that cannot be parsed or
+ * validated become invalid rows instead of failing the import; blank lines are skipped.
+ */
+final class ProductImportReader implements Iterator<ProductImportRow> {
+
+    private static final int CSV_COLUMNS = 4;
+
+    private final BufferedReader reader;
+    private final ObjectReader ndjsonReader;
+    private final Validator validator;
+    private long line;
+    private ProductImportRow next;
+
+    private ProductImportReader(BufferedReader reader, ObjectReader ndjsonReader, Validator validator) {
+        this.reader = reader;
+        this.ndjsonReader = ndjsonReader;
+        this.validator = validator;
+    }
+
+    static ProductImportReader csv(BufferedReader reader, Validator validator) {
+        return new ProductImportReader(reader, null, validator);
+    }
+
+    static ProductImportReader ndjson(BufferedReader reader, ObjectReader requestReader, Validator validator) {
+        return new ProductImportReader(reader, requestReader, validator);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String text = readLine();
+            if (text == null) {
+                return false;
+            }
+            line++;
+            if (!text.isBlank()) {
+                next = ndjsonReader == null ? parseCsv(text) : parseNdjson(text);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ProductImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ProductImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ProductImportRow parseNdjson(String text) {
+        try {
+            return validate(ndjsonReader.readValue(text));
+        } catch (JsonProcessingException e) {
+            return ProductImportRow.invalid(line, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private ProductImportRow parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return ProductImportRow.invalid(line, null, "Unterminated quoted field");
+        }
+        if (line == 1 && "sku".equalsIgnoreCase(fields.get(0).trim())) {
+            return null;
+        }
+        String sku = fields.get(0).trim();
+        if (fields.size() != CSV_COLUMNS) {
+            return ProductImportRow.invalid(line, sku,
+                    "Expected " + CSV_COLUMNS + " columns but found " + fields.size());
+        }
+        BigDecimal price;
+        int availableQuantity;
+        try {
+            price = new BigDecimal(fields.get(2).trim());
+            availableQuantity = Integer.parseInt(fields.get(3).trim());
+        } catch (NumberFormatException e) {
+            return ProductImportRow.invalid(line, sku, "price and availableQuantity must be numbers");
+        }
+        return validate(new CreateProductRequest(sku, fields.get(1).trim(), price, availableQuantity));
+    }
+
+    private ProductImportRow validate(CreateProductRequest request) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String reason = violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+            return ProductImportRow.invalid(line, request.sku(), reason);
+        }
+        return ProductImportRow.valid(line, request.sku(), request.name(), request.price(),
+                request.availableQuantity());
+    }
+
+    /** Splits one CSV line; returns {@code null} when a quoted field is not closed. */
+    private static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
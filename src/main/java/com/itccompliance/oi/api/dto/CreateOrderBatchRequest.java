@@ -0,0 +1,14 @@
+package com.itccompliance.oi.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Orders are validated one by one by the batch endpoint, so an invalid order is rejected on its
+ * own instead of failing the whole batch.
+ */
+public record CreateOrderBatchRequest(
+        @NotEmpty @Size(max = 1000) List<CreateOrderRequest> orders
+) {}
@@ -0,0 +1,9 @@
+package com.itccompliance.oi.api.dto;
+
+import java.util.List;
+
+public record OrderBatchResponse(
+        int accepted,
+        int rejected,
+        List<OrderBatchResult> results
+) {}
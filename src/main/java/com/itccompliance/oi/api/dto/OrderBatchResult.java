@@ -0,0 +1,16 @@
+package com.itccompliance.oi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result for the order at {@code index} of a batch, with the status a single {@code POST /orders}
+ * would have answered: the created order, or the error it was rejected with.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderBatchResult(
+        int index,
+        int status,
+        OrderResponse order,
+        String error,
+        String message
+) {}
@@ -0,0 +1,10 @@
+package com.itccompliance.oi.api.dto;
+
+import com.itccompliance.oi.domain.model.OrderStatus;
+
+import java.util.Map;
+
+public record OrderStatsResponse(
+        long total,
+        Map<OrderStatus, Long> byStatus
+) {}
@@ -0,0 +1,37 @@
+package com.itccompliance.oi.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.itccompliance.oi.domain.service.ProductImportResult;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+
+/**
+ * One line of the NDJSON response to a product import: a rejected row, a progress report, or the
+ * final totals.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductImportEvent(
+        String event,
+        Long line,
+        String sku,
+        String reason,
+        Long rows,
+        Long imported,
+        Long rejected
+) {
+
+    public static ProductImportEvent rejected(ProductImportRow row, String reason) {
+        return new ProductImportEvent("rejected", row.line(), row.sku(), reason, null, null, null);
+    }
+
+    public static ProductImportEvent progress(ProductImportResult result) {
+        return totals("progress", result);
+    }
+
+    public static ProductImportEvent completed(ProductImportResult result) {
+        return totals("completed", result);
+    }
+
+    private static ProductImportEvent totals(String event, ProductImportResult result) {
+        return new ProductImportEvent(event, null, null, null, result.rows(), result.imported(), result.rejected());
+    }
+}
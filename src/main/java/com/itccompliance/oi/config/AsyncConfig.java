@@ -1,9 +1,61 @@
 package com.itccompliance.oi.config;
 
+import com.itccompliance.oi.domain.concurrency.BoundedTaskExecutor;
+import com.itccompliance.oi.domain.concurrency.HashedTimingWheel;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    public static final String FULFILMENT_EXECUTOR = "fulfilmentExecutor";
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private static final int VIRTUAL_THREADS_SINCE = 21;
+
+    /**
+     * {@code virtual} mode needs Java 21; on an older runtime the fulfilment executor falls back to
+     * the bounded platform pool instead of failing at startup.
+     */
+    @Bean(FULFILMENT_EXECUTOR)
+    public BoundedTaskExecutor fulfilmentExecutor(FulfilmentExecutorProperties properties, MeterRegistry meterRegistry) {
+        Executor delegate = switch (properties.mode()) {
+            case VIRTUAL -> virtualThreadsSupported(Runtime.version().feature())
+                    ? new VirtualThreadTaskExecutor("fulfilment-")
+                    : platformFallback(properties);
+            case PLATFORM -> platformExecutor(properties);
+        };
+
+        HashedTimingWheel timer = new HashedTimingWheel("fulfilment-timer", properties.timerTick(),
+                properties.timerWheelSize());
+
+        return new BoundedTaskExecutor("oi.fulfilment.executor", delegate, timer,
+                properties.maxConcurrency(), properties.queueCapacity(), properties.submitTimeout(), meterRegistry);
+    }
+
+    static boolean virtualThreadsSupported(int javaFeatureVersion) {
+        return javaFeatureVersion >= VIRTUAL_THREADS_SINCE;
+    }
+
+    private static Executor platformFallback(FulfilmentExecutorProperties properties) {
+        log.warn("oi.fulfilment.executor.mode=virtual needs Java {} but this is Java {}, "
+                + "using {} platform threads instead", VIRTUAL_THREADS_SINCE, Runtime.version().feature(),
+                properties.maxConcurrency());
+        return platformExecutor(properties);
+    }
+
+    private static Executor platformExecutor(FulfilmentExecutorProperties properties) {
+        return Executors.newFixedThreadPool(properties.maxConcurrency(), new CustomizableThreadFactory("fulfilment-"));
+    }
 }
@@ -0,0 +1,25 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for JFR recordings started through the {@code flightrecording} actuator endpoint.
+ *
+ * @param enabled         whether the endpoint exists at all; it must also be exposed over the web
+ * @param defaultDuration how long a recording runs when the request names no duration
+ * @param maxDuration     longest recording that can be requested; longer requests are shortened to it
+ * @param maxSize         disk space a recording may use, after which JFR drops its oldest chunks
+ * @param settings        JFR configuration used when the request names none, {@code default} or {@code profile}
+ */
+@ConfigurationProperties("oi.flight-recording")
+public record FlightRecordingProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("60s") Duration defaultDuration,
+        @DefaultValue("10m") Duration maxDuration,
+        @DefaultValue("100MB") DataSize maxSize,
+        @DefaultValue("profile") String settings
+) {}
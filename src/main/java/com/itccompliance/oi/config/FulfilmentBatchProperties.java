@@ -0,0 +1,20 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for collecting due fulfilments into bulk status updates.
+ *
+ * @param maxSize       order ids per bulk update
+ * @param maxDelay      how long the first id of a batch waits for more before the batch is flushed
+ * @param queueCapacity due ids that may wait for a flush before submitters block
+ */
+@ConfigurationProperties("oi.fulfilment.batch")
+public record FulfilmentBatchProperties(
+        @DefaultValue("500") int maxSize,
+        @DefaultValue("20ms") Duration maxDelay,
+        @DefaultValue("10000") int queueCapacity
+) {}
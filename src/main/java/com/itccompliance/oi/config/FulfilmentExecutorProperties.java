@@ -0,0 +1,32 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the executor that runs fulfilment tasks.
+ *
+ * @param mode           {@code platform} for a fixed pool, {@code virtual} for one virtual thread per
+ *                       task (requires Java 21, otherwise falls back to {@code platform})
+ * @param maxConcurrency tasks allowed to run at the same time
+ * @param queueCapacity  tasks allowed to wait for a free slot
+ * @param submitTimeout  how long a submitter waits for queue space before the task is rejected
+ * @param timerTick      resolution of the timing wheel that holds delayed tasks
+ * @param timerWheelSize buckets in the timing wheel; delays up to {@code timerTick * timerWheelSize}
+ *                       expire within one revolution
+ */
+@ConfigurationProperties("oi.fulfilment.executor")
+public record FulfilmentExecutorProperties(
+        @DefaultValue("platform") Mode mode,
+        @DefaultValue("32") int maxConcurrency,
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("0ms") Duration submitTimeout,
+        @DefaultValue("10ms") Duration timerTick,
+        @DefaultValue("512") int timerWheelSize
+) {
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+}
@@ -0,0 +1,18 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for the reserve-to-fulfil lag of orders.
+ *
+ * @param slos bucket boundaries of {@code oi.fulfilment.lag}, so the share of orders fulfilled
+ *             within each objective can be read off the histogram
+ */
+@ConfigurationProperties("oi.fulfilment.lag")
+public record FulfilmentLagProperties(
+        @DefaultValue({"250ms", "500ms", "1s", "5s", "30s", "5m"}) List<Duration> slos
+) {}
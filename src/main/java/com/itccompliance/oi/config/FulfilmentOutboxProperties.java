@@ -0,0 +1,20 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for draining the fulfilment outbox.
+ *
+ * @param pollInterval pause between drains once the outbox has no more claimable entries
+ * @param batchSize    entries claimed per statement
+ * @param lease        how long a claimed entry stays invisible to other pollers before it is redelivered
+ */
+@ConfigurationProperties("oi.fulfilment.outbox")
+public record FulfilmentOutboxProperties(
+        @DefaultValue("10ms") Duration pollInterval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("30s") Duration lease
+) {}
@@ -0,0 +1,22 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for committing concurrent {@code POST /orders} requests together.
+ *
+ * @param enabled       whether single orders are grouped; off by default
+ * @param maxSize       orders per shared transaction
+ * @param maxDelay      how long the first order of a group waits for more before it is committed
+ * @param queueCapacity orders that may wait for a commit before new ones are rejected
+ */
+@ConfigurationProperties("oi.orders.group-commit")
+public record OrderGroupCommitProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("64") int maxSize,
+        @DefaultValue("500us") Duration maxDelay,
+        @DefaultValue("10000") int queueCapacity
+) {}
@@ -0,0 +1,14 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the in-memory map of known order statuses used to answer conditional reads.
+ *
+ * @param maximumSize orders remembered before the least recently used ones are forgotten
+ */
+@ConfigurationProperties("oi.order-versions")
+public record OrderVersionsProperties(
+        @DefaultValue("100000") long maximumSize
+) {}
@@ -0,0 +1,15 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for the per-phase timers of order creation and fulfilment.
+ *
+ * @param enabled whether the phases are timed at all; when off, no timers are registered and the
+ *                hot path does not read the clock
+ */
+@ConfigurationProperties("oi.metrics.phases")
+public record PhaseMetricsProperties(
+        @DefaultValue("true") boolean enabled
+) {}
@@ -0,0 +1,18 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for the product catalog cache.
+ *
+ * @param maximumSize SKUs kept before the least valuable entries are evicted
+ * @param timeToLive  how long an entry is served after it was loaded or written
+ */
+@ConfigurationProperties("oi.product-cache")
+public record ProductCacheProperties(
+        @DefaultValue("10000") long maximumSize,
+        @DefaultValue("10m") Duration timeToLive
+) {}
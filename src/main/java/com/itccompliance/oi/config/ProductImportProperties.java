@@ -0,0 +1,16 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings for bulk product imports.
+ *
+ * @param batchSize        rows inserted and committed together; also the most rows held in memory
+ * @param progressInterval rows between two progress reports
+ */
+@ConfigurationProperties("oi.product-import")
+public record ProductImportProperties(
+        @DefaultValue("1000") int batchSize,
+        @DefaultValue("10000") int progressInterval
+) {}
@@ -0,0 +1,16 @@
+package com.itccompliance.oi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Settings for the in-memory index of available quantities.
+ *
+ * @param watermarks low-stock thresholds registered at startup; more can be added at runtime
+ */
+@ConfigurationProperties("oi.inventory.stock-index")
+public record StockLevelIndexProperties(
+        @DefaultValue List<Integer> watermarks
+) {}
@@ -0,0 +1,157 @@
+package com.itccompliance.oi.diagnostics;
+
+import com.itccompliance.oi.config.FlightRecordingProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Starts a bounded JFR recording on demand and hands back the {@code .jfr} file, so a slow
+ * order path can be profiled in place without restarting the service with
+ * {@code -XX:StartFlightRecording}. The recording includes the service's own
+ * {@link OrderCreationEvent}s, {@link StockReservationEvent}s and {@link FulfilmentTransitionEvent}s.
+ * <ul>
+ *     <li>{@code POST /actuator/flightrecording}, optionally with {@code duration} and {@code settings},
+ *     starts a recording; {@code 409} while an earlier one has not been collected</li>
+ *     <li>{@code GET /actuator/flightrecording} reports its state</li>
+ *     <li>{@code DELETE /actuator/flightrecording} stops it if it is still running and returns the file</li>
+ * </ul>
+ * A recording stops by itself after its duration and keeps at most {@code maxSize} on disk; at most
+ * one exists at a time. The JDK's initial environment variable and system property events are left
+ * out, so a recording does not carry credentials passed through either.
+ * <p>
+ * The endpoint is unauthenticated, so it only exists with {@code oi.flight-recording.enabled} and
+ * still has to be added to {@code management.endpoints.web.exposure.include}.
+ */
+@Component
+@ConditionalOnProperty(name = "oi.flight-recording.enabled", havingValue = "true")
+@WebEndpoint(id = "flightrecording")
+public class FlightRecordingEndpoint {
+
+    private static final int STATUS_CONFLICT = 409;
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS =
+            List.of(OrderCreationEvent.class, StockReservationEvent.class, FulfilmentTransitionEvent.class);
+
+    private static final List<String> SENSITIVE_EVENTS =
+            List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    private final FlightRecordingProperties properties;
+    private Recording recording;
+
+    public FlightRecordingEndpoint(FlightRecordingProperties properties) {
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public synchronized WebEndpointResponse<RecordingStatus> status() {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        return new WebEndpointResponse<>(RecordingStatus.of(recording));
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<RecordingStatus> start(@Nullable Duration duration, @Nullable String settings) {
+        if (recording != null) {
+            return new WebEndpointResponse<>(STATUS_CONFLICT);
+        }
+        String name = settings != null ? settings : properties.settings();
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        Duration requested = duration != null ? duration : properties.defaultDuration();
+        if (requested.isNegative() || requested.isZero()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+
+        Recording started = new Recording(configuration);
+        started.setName("oi-" + name);
+        started.setDuration(requested.compareTo(properties.maxDuration()) > 0 ? properties.maxDuration() : requested);
+        started.setMaxSize(properties.maxSize().toBytes());
+        started.setToDisk(true);
+        EVENTS.forEach(started::enable);
+        SENSITIVE_EVENTS.forEach(started::disable);
+        started.start();
+        recording = started;
+        return new WebEndpointResponse<>(RecordingStatus.of(started));
+    }
+
+    /** Stops the recording if it is still running and returns its file, deleted once it has been sent. */
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        Path file = Files.createTempFile("oi-recording-", ".jfr");
+        try (Recording stopped = recording) {
+            recording = null;
+            stopped.dump(file);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new WebEndpointResponse<>(new TemporaryFileResource(file));
+    }
+
+    public record RecordingStatus(String name, String state, Instant startTime, Duration duration, long maxSize) {
+
+        static RecordingStatus of(Recording recording) {
+            return new RecordingStatus(recording.getName(), recording.getState().name(), recording.getStartTime(),
+                    recording.getDuration(), recording.getMaxSize());
+        }
+    }
+
+    /** A file that is deleted when the stream reading it is closed, as the response writer does. */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(Path file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        delete();
+                    }
+                }
+            };
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(getFile().toPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
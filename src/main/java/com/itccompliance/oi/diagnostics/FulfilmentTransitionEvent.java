@@ -0,0 +1,32 @@
+package com.itccompliance.oi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One step of an order through fulfilment: {@code enqueued} when its outbox entry is written,
+ * {@code dispatched} when it is handed to the fulfilment timer and {@code fulfilled} when the bulk
+ * update that moved it to {@code FULFILLED} commits. The duration is that of the step's own work;
+ * the orders of one bulk update share its duration.
+ */
+@Name("com.itccompliance.oi.FulfilmentTransition")
+@Label("Fulfilment Transition")
+@Category({"Order Inventory", "Fulfilment"})
+@Description("An order moving one step through fulfilment")
+@StackTrace(false)
+public class FulfilmentTransitionEvent extends Event {
+
+    @Label("Order Id")
+    public long orderId;
+
+    @Label("Transition")
+    public String transition;
+
+    @Label("Batch Size")
+    @Description("Orders fulfilled by the same bulk update, 1 for the other transitions")
+    public int batchSize;
+}
@@ -0,0 +1,30 @@
+package com.itccompliance.oi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One {@code OrderService.createOrder} call, from the request reaching the service to the order
+ * being committed or rejected.
+ */
+@Name("com.itccompliance.oi.OrderCreation")
+@Label("Order Creation")
+@Category({"Order Inventory", "Orders"})
+@Description("Creation of one order, including stock reservation and commit")
+@StackTrace(false)
+public class OrderCreationEvent extends Event {
+
+    @Label("Order Id")
+    @Description("Id of the created order, 0 if it was rejected")
+    public long orderId;
+
+    @Label("Lines")
+    public int lines;
+
+    @Label("Outcome")
+    public String outcome;
+}
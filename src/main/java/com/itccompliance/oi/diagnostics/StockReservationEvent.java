@@ -0,0 +1,37 @@
+package com.itccompliance.oi.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One attempt to reserve stock for an order, or for all orders of a batch at once. A conflict
+ * that is retried ends the attempt and is followed by another event.
+ */
+@Name("com.itccompliance.oi.StockReservation")
+@Label("Stock Reservation")
+@Category({"Order Inventory", "Inventory"})
+@Description("One reservation engine call and its outcome")
+@StackTrace(false)
+public class StockReservationEvent extends Event {
+
+    @Label("Order Id")
+    @Description("Id the order was saved under, 0 if the reservation failed or covered a batch")
+    public long orderId;
+
+    @Label("Orders")
+    public int orders;
+
+    @Label("Lines")
+    @Description("Distinct SKUs reserved, summed over the orders")
+    public int lines;
+
+    @Label("Rejected Orders")
+    public int rejected;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,154 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Hands items queued by many threads to {@code flush} on one worker thread, in batches. A batch is
+ * flushed once it holds {@code maxSize} items or its first item has waited {@code maxDelay}; items
+ * arriving while a batch flushes form the next one. {@code flush} is expected to handle its own
+ * failures.
+ * <p>
+ * Items are only queued while the loop is running, checked under the same lock that {@link #stop}
+ * takes to stop it, so once stopped the worker has seen every item it will ever get. {@link #stop}
+ * then waits a bounded time for the worker to flush them; anything still queued after that, and
+ * the batch in hand if the worker is interrupted, goes to {@code abandon} instead, so no item is
+ * left without an outcome.
+ */
+public class BatchingLoop<T> {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final String name;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<T> queue;
+    private final Consumer<List<T>> flush;
+    private final Consumer<List<T>> abandon;
+    private final ReadWriteLock state = new ReentrantReadWriteLock();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public BatchingLoop(String name, int maxSize, Duration maxDelay, int queueCapacity,
+                        Consumer<List<T>> flush, Consumer<List<T>> abandon) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flush = flush;
+        this.abandon = abandon;
+    }
+
+    /** Queues an item without waiting; returns {@code false} if the queue is full or the loop is stopped. */
+    public boolean offer(T item) {
+        state.readLock().lock();
+        try {
+            return running && queue.offer(item);
+        } finally {
+            state.readLock().unlock();
+        }
+    }
+
+    /**
+     * Queues an item, waiting while the queue is full; returns {@code false} if the loop is stopped
+     * first. The lock is only held for one poll interval at a time, so a full queue cannot hold up
+     * {@link #stop}.
+     */
+    public boolean put(T item) throws InterruptedException {
+        while (true) {
+            state.readLock().lock();
+            try {
+                if (!running) {
+                    return false;
+                }
+                if (queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } finally {
+                state.readLock().unlock();
+            }
+        }
+    }
+
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Stops accepting items and waits up to {@code timeout} for the worker to flush the ones already
+     * queued. Items it has not taken by then are abandoned.
+     */
+    public void stop(Duration timeout) throws InterruptedException {
+        close();
+        worker.join(timeout.toMillis());
+        abandonQueued();
+    }
+
+    private void close() {
+        state.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            state.writeLock().unlock();
+        }
+    }
+
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(maxSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + maxDelayNanos);
+                flush.accept(batch);
+            } catch (InterruptedException e) {
+                close();
+                if (!batch.isEmpty()) {
+                    abandon.accept(batch);
+                }
+                abandonQueued();
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void fillBatch(List<T> batch, long deadline) throws InterruptedException {
+        while (batch.size() < maxSize) {
+            queue.drainTo(batch, maxSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxSize || remaining <= 0) {
+                return;
+            }
+            T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void abandonQueued() {
+        List<T> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) {
+            abandon.accept(left);
+        }
+    }
+}
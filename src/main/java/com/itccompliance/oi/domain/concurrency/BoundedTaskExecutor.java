@@ -0,0 +1,163 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link TaskExecutor} that caps both running and waiting tasks. A submitter waits at most
+ * {@code submitTimeout} for a free slot and then gets a {@link TaskRejectedException}, so a burst
+ * pushes back on the caller instead of growing the heap.
+ * <p>
+ * The delegate only starts tasks; the concurrency cap is enforced here, which lets the same class
+ * front a fixed platform pool or a thread-per-task virtual executor. Delayed tasks from
+ * {@link #schedule} take their slot when they are submitted but hold no thread until they are due.
+ * <p>
+ * Publishes {@code <name>.scheduled}, {@code <name>.queued} and {@code <name>.active} gauges, a
+ * {@code <name>.wait} timer for the time from becoming runnable to start and a
+ * {@code <name>.rejected} counter.
+ */
+public class BoundedTaskExecutor implements TaskExecutor, DisposableBean {
+
+    private final String name;
+    private final Executor delegate;
+    private final HashedTimingWheel timer;
+    private final Semaphore admission;
+    private final Semaphore running;
+    private final long submitTimeoutNanos;
+
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    /**
+     * @param delegate starts each task and must not apply its own queue limit; shut down together
+     *                 with this executor if it is an {@link ExecutorService}
+     * @param timer    hands delayed tasks to the delegate once they are due; stopped together with
+     *                 this executor
+     */
+    public BoundedTaskExecutor(String name, Executor delegate, HashedTimingWheel timer,
+                               int maxConcurrency, int queueCapacity, Duration submitTimeout,
+                               MeterRegistry meterRegistry) {
+        this.name = name;
+        this.delegate = delegate;
+        this.timer = timer;
+        this.admission = new Semaphore(maxConcurrency + queueCapacity);
+        this.running = new Semaphore(maxConcurrency);
+        this.submitTimeoutNanos = submitTimeout.toNanos();
+
+        Gauge.builder(name + ".scheduled", scheduled, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder(name + ".queued", queued, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder(name + ".active", active, AtomicInteger::get).register(meterRegistry);
+        this.waitTimer = Timer.builder(name + ".wait").register(meterRegistry);
+        this.rejected = Counter.builder(name + ".rejected").register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        admit();
+        dispatch(task);
+    }
+
+    /**
+     * Runs the task once the delay has passed. Admission happens immediately, so the caller still
+     * gets a {@link TaskRejectedException} when the executor is full.
+     */
+    public void schedule(Runnable task, Duration delay) {
+        admit();
+        scheduled.incrementAndGet();
+        try {
+            timer.schedule(() -> {
+                scheduled.decrementAndGet();
+                try {
+                    dispatch(task);
+                } catch (RuntimeException ignored) {
+                    // dispatch has already given the slot back
+                }
+            }, delay);
+        } catch (RuntimeException e) {
+            scheduled.decrementAndGet();
+            admission.release();
+            throw e;
+        }
+    }
+
+    public int getScheduledCount() {
+        return scheduled.get();
+    }
+
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        timer.stop();
+        if (delegate instanceof ExecutorService executorService) {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private void admit() {
+        if (!tryAdmit()) {
+            rejected.increment();
+            throw new TaskRejectedException(name + " is at capacity, try again later");
+        }
+    }
+
+    private boolean tryAdmit() {
+        try {
+            return admission.tryAcquire(submitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        long runnableAt = System.nanoTime();
+        queued.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task, runnableAt));
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            admission.release();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task, long runnableAt) {
+        try {
+            running.acquireUninterruptibly();
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            waitTimer.record(System.nanoTime() - runnableAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                running.release();
+            }
+        } finally {
+            admission.release();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and repeats it when it loses a race on a product row,
+ * e.g. an optimistic version check or a lock timeout.
+ * <p>
+ * Retries wait a random delay of up to {@code initialBackoff * 2^retry} (capped at
+ * {@code maxBackoff}) and are limited both per call and by a shared {@link RetryBudget}. Conflicts
+ * and retries are counted per operation and SKU bucket ({@code oi.stock.conflicts},
+ * {@code oi.stock.retries}); calls that give up are counted in {@code oi.stock.retries.exhausted}.
+ * <p>
+ * When a transaction is already active the work joins it and is not retried, because the outer
+ * transaction is already marked for rollback.
+ */
+@Component
+public class ConflictRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetryProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final RetryBudget budget;
+
+    public ConflictRetryExecutor(PlatformTransactionManager transactionManager,
+                                 ConflictRetryProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.budget = new RetryBudget(properties.budgetRatio(), properties.budgetMax());
+    }
+
+    public <T> T executeInTransaction(String operation, Collection<String> skus, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        budget.deposit();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException conflict) {
+                Set<String> buckets = bucketsOf(skus);
+                buckets.forEach(bucket -> meterRegistry.counter("oi.stock.conflicts",
+                        "operation", operation, "sku_bucket", bucket).increment());
+
+                if (attempt >= properties.maxAttempts()) {
+                    giveUp(operation, "attempts");
+                    throw conflict;
+                }
+                if (!budget.tryWithdraw()) {
+                    giveUp(operation, "budget");
+                    throw conflict;
+                }
+
+                buckets.forEach(bucket -> meterRegistry.counter("oi.stock.retries",
+                        "operation", operation, "sku_bucket", bucket).increment());
+                backOff(attempt, conflict);
+            }
+        }
+    }
+
+    private void giveUp(String operation, String reason) {
+        meterRegistry.counter("oi.stock.retries.exhausted", "operation", operation, "reason", reason).increment();
+    }
+
+    private void backOff(int attempt, ConcurrencyFailureException conflict) {
+        long ceiling = Math.min(properties.maxBackoff().toNanos(),
+                properties.initialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        long delayNanos = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delayNanos / 1_000_000, (int) (delayNanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    private Set<String> bucketsOf(Collection<String> skus) {
+        Set<String> buckets = new TreeSet<>();
+        for (String sku : skus) {
+            buckets.add(Integer.toString(Math.floorMod(sku.hashCode(), properties.skuBuckets())));
+        }
+        return buckets;
+    }
+}
@@ -0,0 +1,26 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ConflictRetryExecutor}.
+ *
+ * @param maxAttempts    attempts per call, including the first one
+ * @param initialBackoff upper bound of the jittered delay before the first retry, doubled per retry
+ * @param maxBackoff     cap for the jittered delay
+ * @param budgetRatio    retries earned per call, e.g. {@code 0.2} allows one retry for every five calls
+ * @param budgetMax      retries that can be saved up for a burst of conflicts
+ * @param skuBuckets     number of buckets SKUs are hashed into for metric tags
+ */
+@ConfigurationProperties("oi.retry")
+public record ConflictRetryProperties(
+        @DefaultValue("5") int maxAttempts,
+        @DefaultValue("2ms") Duration initialBackoff,
+        @DefaultValue("100ms") Duration maxBackoff,
+        @DefaultValue("0.2") double budgetRatio,
+        @DefaultValue("100") int budgetMax,
+        @DefaultValue("16") int skuBuckets
+) {}
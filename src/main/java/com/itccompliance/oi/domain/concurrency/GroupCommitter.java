@@ -0,0 +1,119 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Groups requests from concurrent callers into batches that are committed together. Each caller
+ * blocks in {@link #submit} until the batch holding its request has been committed and then gets
+ * its own result. If committing the batch throws, one bad request must not fail the others, so
+ * each request of the batch is committed again on its own and its caller gets that result or
+ * exception instead.
+ * <p>
+ * A {@link BatchingLoop} commits the batches one after another on one worker thread. A batch is
+ * committed once it holds {@code maxSize} requests or its first request has waited {@code maxDelay};
+ * requests arriving while a batch commits form the next one. When {@code queueCapacity} requests are
+ * already waiting, or the committer is stopped, {@link #submit} fails fast with a
+ * {@link TaskRejectedException}; so does a request that was queued but not committed before
+ * {@link #stop} gave up waiting.
+ * <p>
+ * Publishes {@code oi.group.commit.size} and the {@code oi.group.commit.flush} timer, both tagged
+ * with the {@code name} of the committer.
+ */
+public class GroupCommitter<T, R> {
+
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final String name;
+    private final Function<List<T>, List<R>> commit;
+    private final Function<T, R> commitOne;
+    private final BatchingLoop<Pending<T, R>> loop;
+    private final DistributionSummary batchSize;
+    private final Timer flushTimer;
+
+    /**
+     * @param commit    commits a batch and returns one result per request, in request order
+     * @param commitOne commits a single request in its own transaction, used when a batch fails
+     */
+    public GroupCommitter(String name, int maxSize, Duration maxDelay, int queueCapacity,
+                          Function<List<T>, List<R>> commit, Function<T, R> commitOne,
+                          MeterRegistry meterRegistry) {
+        this.name = name;
+        this.commit = commit;
+        this.commitOne = commitOne;
+        this.loop = new BatchingLoop<>(name + "-group-commit", maxSize, maxDelay, queueCapacity,
+                this::flush, this::reject);
+        this.batchSize = DistributionSummary.builder("oi.group.commit.size").tag("name", name)
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("oi.group.commit.flush").tag("name", name).register(meterRegistry);
+    }
+
+    public R submit(T request) {
+        Pending<T, R> pending = new Pending<>(request, new CompletableFuture<>());
+        if (!loop.offer(pending)) {
+            throw new TaskRejectedException(name + " group commit is at capacity, try again later");
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException failure) {
+            if (failure.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (failure.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw failure;
+        }
+    }
+
+    public void start() {
+        loop.start();
+    }
+
+    /** Stops accepting requests and commits the ones already queued; any left after that are rejected. */
+    public void stop() throws InterruptedException {
+        loop.stop(STOP_TIMEOUT);
+    }
+
+    private void flush(List<Pending<T, R>> batch) {
+        batchSize.record(batch.size());
+        List<T> requests = new ArrayList<>(batch.size());
+        batch.forEach(pending -> requests.add(pending.request()));
+        try {
+            List<R> results = flushTimer.record(() -> commit.apply(requests));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (RuntimeException | Error failure) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(failure);
+                return;
+            }
+            batch.forEach(this::commitAlone);
+        }
+    }
+
+    private void commitAlone(Pending<T, R> pending) {
+        try {
+            pending.result().complete(commitOne.apply(pending.request()));
+        } catch (RuntimeException | Error failure) {
+            pending.result().completeExceptionally(failure);
+        }
+    }
+
+    private void reject(List<Pending<T, R>> batch) {
+        TaskRejectedException rejection = new TaskRejectedException(name + " group commit stopped before committing");
+        batch.forEach(pending -> pending.result().completeExceptionally(rejection));
+    }
+
+    private record Pending<T, R>(T request, CompletableFuture<R> result) {}
+}
@@ -0,0 +1,187 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of short, uncancellable delays.
+ * <p>
+ * {@link #schedule} only appends to a lock-free queue, so insertion is O(1) regardless of how many
+ * tasks are pending, unlike the O(log n) heap behind a {@code ScheduledThreadPoolExecutor}. A single
+ * ticker thread wakes once per {@code tick}, moves newly scheduled tasks into the bucket for their
+ * deadline and runs every task of the current bucket whose last round has come. Tasks therefore
+ * fire at most one tick late and never early.
+ * <p>
+ * Tasks run on the ticker thread and must be short; hand real work to an executor.
+ */
+public class HashedTimingWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(HashedTimingWheel.class);
+
+    /** Upper bound on tasks moved from the queue per tick, so a burst cannot stall expiry. */
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Entry> incoming = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startTime;
+    private final Thread ticker;
+
+    private volatile boolean running = true;
+    private long tick;
+
+    /**
+     * @param tick      resolution of the wheel
+     * @param wheelSize buckets per revolution, rounded up to a power of two; delays longer than
+     *                  {@code tick * wheelSize} take more than one revolution
+     */
+    public HashedTimingWheel(String threadName, Duration tick, int wheelSize) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be positive: " + tick);
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("wheelSize must be between 1 and 2^30: " + wheelSize);
+        }
+        this.tickNanos = tick.toNanos();
+        int buckets = 1;
+        while (buckets < wheelSize) {
+            buckets <<= 1;
+        }
+        this.wheel = new Bucket[buckets];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = wheel.length - 1;
+        this.startTime = System.nanoTime();
+        this.ticker = new Thread(this::run, threadName);
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    /**
+     * Runs the task on the ticker thread once the delay has passed.
+     *
+     * @throws RejectedExecutionException if the wheel has been stopped
+     */
+    public void schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new RejectedExecutionException("Timing wheel " + ticker.getName() + " is stopped");
+        }
+        pending.incrementAndGet();
+        incoming.add(new Entry(task, System.nanoTime() - startTime + Math.max(0, delay.toNanos())));
+    }
+
+    /** Tasks scheduled and not yet run. */
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    /** Stops the ticker; tasks that have not yet run are dropped. */
+    public void stop() throws InterruptedException {
+        running = false;
+        ticker.interrupt();
+        ticker.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        while (running) {
+            long tickEnd = startTime + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = tickEnd - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            if (!running) {
+                return;
+            }
+            transferIncoming();
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferIncoming() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Entry entry = incoming.poll();
+            if (entry == null) {
+                return;
+            }
+            long dueTick = Math.max(entry.deadline / tickNanos, tick);
+            entry.remainingRounds = (dueTick - tick) / wheel.length;
+            wheel[(int) (dueTick & mask)].add(entry);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Entry previous = null;
+        Entry entry = bucket.head;
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.remainingRounds > 0) {
+                entry.remainingRounds--;
+                previous = entry;
+            } else {
+                bucket.remove(previous, entry);
+                pending.decrementAndGet();
+                runTask(entry.task);
+            }
+            entry = next;
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            log.warn("Timed task on {} failed", ticker.getName(), e);
+        }
+    }
+
+    private static final class Entry {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private Entry next;
+
+        private Entry(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+
+    /** Singly linked list touched only by the ticker thread. */
+    private static final class Bucket {
+        private Entry head;
+        private Entry tail;
+
+        private void add(Entry entry) {
+            if (tail == null) {
+                head = entry;
+            } else {
+                tail.next = entry;
+            }
+            tail = entry;
+        }
+
+        private void remove(Entry previous, Entry entry) {
+            if (previous == null) {
+                head = entry.next;
+            } else {
+                previous.next = entry.next;
+            }
+            if (tail == entry) {
+                tail = previous;
+            }
+            entry.next = null;
+        }
+    }
+}
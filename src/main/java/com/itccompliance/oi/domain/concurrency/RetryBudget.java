@@ -0,0 +1,38 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that lets retries make up at most a fixed share of all calls, so a hot spot cannot
+ * multiply its own load by retrying every conflict. Balances are kept in thousandths of a retry.
+ */
+class RetryBudget {
+
+    private static final long RETRY_COST = 1_000;
+
+    private final long depositPerCall;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    RetryBudget(double ratio, int maxRetries) {
+        this.depositPerCall = Math.round(ratio * RETRY_COST);
+        this.maxBalance = maxRetries * RETRY_COST;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    void deposit() {
+        balance.accumulateAndGet(depositPerCall, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < RETRY_COST) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - RETRY_COST)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.itccompliance.oi.domain.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Sorted set of primitive {@code long}s kept in fixed-size sorted chunks, so inserts and removals
+ * shift at most one chunk and no key is ever boxed. Not thread-safe.
+ */
+final class ChunkedLongSortedSet {
+
+    private static final int CHUNK_SIZE = 256;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    boolean add(long key) {
+        if (chunks.isEmpty()) {
+            chunks.add(new Chunk());
+        }
+        int chunkIndex = chunkFor(key);
+        Chunk chunk = chunks.get(chunkIndex);
+        int position = Arrays.binarySearch(chunk.keys, 0, chunk.size, key);
+        if (position >= 0) {
+            return false;
+        }
+        position = -position - 1;
+
+        if (chunk.size == CHUNK_SIZE) {
+            Chunk upper = chunk.splitUpperHalf();
+            chunks.add(chunkIndex + 1, upper);
+            if (position > chunk.size) {
+                position -= chunk.size;
+                chunk = upper;
+            }
+        }
+        chunk.insert(position, key);
+        size++;
+        return true;
+    }
+
+    boolean remove(long key) {
+        if (chunks.isEmpty()) {
+            return false;
+        }
+        int chunkIndex = chunkFor(key);
+        Chunk chunk = chunks.get(chunkIndex);
+        int position = Arrays.binarySearch(chunk.keys, 0, chunk.size, key);
+        if (position < 0) {
+            return false;
+        }
+        chunk.delete(position);
+        if (chunk.size == 0 && chunks.size() > 1) {
+            chunks.remove(chunkIndex);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Visits keys in ascending order until the visitor returns {@code false}.
+     */
+    void forEachAscending(LongPredicate visitor) {
+        for (Chunk chunk : chunks) {
+            for (int i = 0; i < chunk.size; i++) {
+                if (!visitor.test(chunk.keys[i])) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Index of the last chunk whose smallest key is not greater than {@code key}, or 0. */
+    private int chunkFor(long key) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            Chunk chunk = chunks.get(mid);
+            if (chunk.size > 0 && chunk.keys[0] <= key) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private static final class Chunk {
+        private final long[] keys = new long[CHUNK_SIZE];
+        private int size;
+
+        private void insert(int position, long key) {
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            keys[position] = key;
+            size++;
+        }
+
+        private void delete(int position) {
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+            size--;
+        }
+
+        private Chunk splitUpperHalf() {
+            Chunk upper = new Chunk();
+            int keep = size / 2;
+            upper.size = size - keep;
+            System.arraycopy(keys, keep, upper.keys, 0, upper.size);
+            size = keep;
+            return upper;
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.domain.concurrency.SingleFlight;
+import com.itccompliance.oi.domain.exception.InsufficientStockException;
+import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.model.StockMovementType;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the authoritative available quantity of every SKU that has been touched since startup
+ * in lock-free counters, so orders are accepted or rejected without a database round trip.
+ * <p>
+ * Counters are seeded from the {@code products} table, with one {@code IN} query for all SKUs of an
+ * order that are not tracked yet, and are never decremented below zero. Concurrent orders that
+ * need the same untracked SKUs share that query. Every reservation, release and restock is
+ * appended to {@link StockLedger}, which keeps the table's quantities as periodic checkpoints; on
+ * startup the SKUs with movements after the latest checkpoint are seeded from the ledger instead.
+ * Every change is also pushed to {@link StockLevelIndex}, which therefore sees reservations as soon
+ * as the engine does.
+ */
+@Component
+@ConditionalOnProperty(name = "oi.inventory.reservation-mode", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryStockReservationEngine implements StockReservationEngine {
+
+    private final ProductRepository productRepository;
+    private final StockLevelIndex stockLevelIndex;
+    private final StockLedger stockLedger;
+    private final Map<String, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final SingleFlight<List<String>, List<Product>> seedLoads;
+
+    public InMemoryStockReservationEngine(ProductRepository productRepository, StockLevelIndex stockLevelIndex,
+                                          StockLedger stockLedger, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.stockLevelIndex = stockLevelIndex;
+        this.stockLedger = stockLedger;
+        this.seedLoads = new SingleFlight<>("stock-seed", meterRegistry);
+    }
+
+    /**
+     * Tracks the SKUs whose quantity has moved since the latest ledger checkpoint, at their
+     * checkpointed quantity plus the movements after it, as the table alone would be stale for them.
+     */
+    @PostConstruct
+    public void recover() {
+        stockLedger.recover().forEach((sku, quantity) -> {
+            AtomicInteger counter = new AtomicInteger(quantity);
+            available.put(sku, counter);
+            stockLevelIndex.update(sku, counter::get);
+        });
+    }
+
+    /**
+     * Reserves every line or none of them. Lines are applied in SKU order and undone again if a
+     * later SKU cannot be satisfied. When called inside a transaction the reservation is released
+     * automatically if that transaction rolls back.
+     */
+    @Override
+    public void reserve(Map<String, Integer> quantitiesBySku) {
+        Map<String, Integer> ordered = new TreeMap<>(quantitiesBySku);
+        loadUntracked(ordered.keySet());
+        reserveTracked(ordered);
+        releaseOnRollback(ordered);
+    }
+
+    /**
+     * Seeds the SKUs of all orders with one query, then reserves the orders one after another
+     * against the counters. Everything reserved is released together if the surrounding
+     * transaction rolls back.
+     */
+    @Override
+    public List<RuntimeException> reserveEach(List<Map<String, Integer>> quantitiesBySkuPerOrder) {
+        Set<String> skus = new TreeSet<>();
+        quantitiesBySkuPerOrder.forEach(order -> skus.addAll(order.keySet()));
+        seed(skus);
+
+        List<RuntimeException> rejections = new ArrayList<>(quantitiesBySkuPerOrder.size());
+        Map<String, Integer> reserved = new TreeMap<>();
+        for (Map<String, Integer> quantitiesBySku : quantitiesBySkuPerOrder) {
+            Map<String, Integer> ordered = new TreeMap<>(quantitiesBySku);
+            try {
+                reserveTracked(ordered);
+                ordered.forEach((sku, quantity) -> reserved.merge(sku, quantity, Integer::sum));
+                rejections.add(null);
+            } catch (ProductNotFoundException | InsufficientStockException rejection) {
+                rejections.add(rejection);
+            }
+        }
+        releaseOnRollback(reserved);
+        return rejections;
+    }
+
+    private void reserveTracked(Map<String, Integer> ordered) {
+        for (String sku : ordered.keySet()) {
+            if (!available.containsKey(sku)) {
+                throw new ProductNotFoundException(sku);
+            }
+        }
+
+        List<Map.Entry<String, Integer>> applied = new ArrayList<>(ordered.size());
+        for (Map.Entry<String, Integer> line : ordered.entrySet()) {
+            AtomicInteger counter = available.get(line.getKey());
+            if (!tryDecrement(counter, line.getValue())) {
+                // nothing outside the counters has seen these lines yet, so undoing them cannot fail
+                applied.forEach(done -> available.get(done.getKey()).addAndGet(done.getValue()));
+                throw new InsufficientStockException(line.getKey());
+            }
+            applied.add(line);
+        }
+        for (Map.Entry<String, Integer> line : applied) {
+            AtomicInteger counter = available.get(line.getKey());
+            stockLevelIndex.update(line.getKey(), counter::get);
+            stockLedger.append(line.getKey(), StockMovementType.RESERVATION, -line.getValue());
+        }
+    }
+
+    private void releaseOnRollback(Map<String, Integer> reserved) {
+        if (reserved.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    // the reservation movements were rolled back with the transaction
+                    reserved.forEach(InMemoryStockReservationEngine.this::add);
+                }
+            }
+        });
+    }
+
+    public void release(Map<String, Integer> quantitiesBySku) {
+        quantitiesBySku.forEach((sku, quantity) -> {
+            add(sku, quantity);
+            stockLedger.append(sku, StockMovementType.RELEASE, quantity);
+        });
+    }
+
+    /**
+     * Replaces the available quantity of a SKU, e.g. after a restock through the product API.
+     * Inside a transaction the restock is recorded in the ledger as part of it, as the difference to
+     * the quantity tracked just before it commits, and that difference is only added to the counter
+     * once it has committed; a rolled back restock leaves the counter alone. Reservations that land
+     * in between are therefore kept rather than overwritten, in the counter and the ledger alike.
+     */
+    @Override
+    public void restock(String sku, int availableQuantity) {
+        stockLedger.appendOnCommit(sku, StockMovementType.RESTOCK,
+                () -> restockDelta(sku, availableQuantity), delta -> applyRestock(sku, delta));
+    }
+
+    /**
+     * Returns the live quantity for a SKU the engine is already tracking, or {@code null} if the
+     * database value is still authoritative.
+     */
+    @Override
+    public Integer trackedQuantity(String sku) {
+        AtomicInteger counter = available.get(sku);
+        return counter == null ? null : counter.get();
+    }
+
+    /**
+     * Seeds the SKU first, so the difference to the quantity it replaces is exact. Leaves the counter
+     * itself alone.
+     */
+    private int restockDelta(String sku, int availableQuantity) {
+        seed(List.of(sku));
+        AtomicInteger counter = available.get(sku);
+        return availableQuantity - (counter == null ? 0 : counter.get());
+    }
+
+    private void applyRestock(String sku, int delta) {
+        AtomicInteger counter = available.computeIfAbsent(sku, key -> new AtomicInteger());
+        counter.addAndGet(delta);
+        stockLevelIndex.update(sku, counter::get);
+    }
+
+    private void loadUntracked(Collection<String> skus) {
+        seed(skus);
+        for (String sku : skus) {
+            if (!available.containsKey(sku)) {
+                throw new ProductNotFoundException(sku);
+            }
+        }
+    }
+
+    /** Starts tracking every SKU that exists and is not tracked yet; unknown SKUs are left out. */
+    private void seed(Collection<String> skus) {
+        List<String> untracked = skus.stream()
+                .filter(sku -> !available.containsKey(sku))
+                .toList();
+        if (untracked.isEmpty()) {
+            return;
+        }
+
+        for (Product product : seedLoads.execute(untracked, () -> productRepository.findBySkuIn(untracked))) {
+            available.putIfAbsent(product.getSku(), new AtomicInteger(product.getAvailableQuantity()));
+        }
+    }
+
+    private static boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    private void add(String sku, int quantity) {
+        AtomicInteger counter = available.get(sku);
+        counter.addAndGet(quantity);
+        stockLevelIndex.update(sku, counter::get);
+    }
+}
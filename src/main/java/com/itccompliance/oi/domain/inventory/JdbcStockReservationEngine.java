@@ -0,0 +1,162 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.domain.concurrency.AfterCommit;
+import com.itccompliance.oi.domain.exception.InsufficientStockException;
+import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.persistence.ProductRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves stock directly in the {@code products} table with set-based statements: one {@code IN}
+ * query for all SKUs of the order and one JDBC batch of conditional decrements, issued in SKU order
+ * so concurrent orders lock rows in the same sequence.
+ * <p>
+ * Each decrement only matches while enough stock is left, so the database itself rules out
+ * overselling. A decrement that matches no row fails the caller's transaction, which rolls back
+ * the other lines of the order with it. {@link StockLevelIndex} is moved by the reserved
+ * quantities once the transaction commits.
+ * <p>
+ * {@link #reserveEach} locks the rows of all SKUs involved up front, decides every order against
+ * the locked quantities and then decrements each SKU once by the total of the accepted orders.
+ */
+@Component
+@ConditionalOnProperty(name = "oi.inventory.reservation-mode", havingValue = "jdbc")
+public class JdbcStockReservationEngine implements StockReservationEngine {
+
+    private static final String RESERVE_SQL =
+            "UPDATE products SET available_quantity = available_quantity - ?, version = version + 1 " +
+            "WHERE sku = ? AND available_quantity >= ?";
+    private static final String LOCK_SQL = "SELECT available_quantity FROM products WHERE sku = ? FOR UPDATE";
+    private static final String RESTOCK_SQL = "UPDATE products SET available_quantity = ? WHERE sku = ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final StockLevelIndex stockLevelIndex;
+
+    public JdbcStockReservationEngine(ProductRepository productRepository, JdbcTemplate jdbcTemplate,
+                                      StockLevelIndex stockLevelIndex) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.stockLevelIndex = stockLevelIndex;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Map<String, Integer> quantitiesBySku) {
+        Map<String, Integer> ordered = new TreeMap<>(quantitiesBySku);
+
+        Map<String, Product> products = productRepository.findBySkuIn(ordered.keySet()).stream()
+                .collect(Collectors.toMap(Product::getSku, Function.identity()));
+        for (Map.Entry<String, Integer> line : ordered.entrySet()) {
+            Product product = products.get(line.getKey());
+            if (product == null) {
+                throw new ProductNotFoundException(line.getKey());
+            }
+            if (product.getAvailableQuantity() < line.getValue()) {
+                throw new InsufficientStockException(line.getKey());
+            }
+        }
+
+        decrement(ordered);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<RuntimeException> reserveEach(List<Map<String, Integer>> quantitiesBySkuPerOrder) {
+        Set<String> skus = new TreeSet<>();
+        quantitiesBySkuPerOrder.forEach(order -> skus.addAll(order.keySet()));
+        Map<String, Integer> remaining = new HashMap<>();
+        for (Product product : productRepository.findBySkuInOrderBySkuAsc(skus)) {
+            remaining.put(product.getSku(), product.getAvailableQuantity());
+        }
+
+        List<RuntimeException> rejections = new ArrayList<>(quantitiesBySkuPerOrder.size());
+        Map<String, Integer> reserved = new TreeMap<>();
+        for (Map<String, Integer> quantitiesBySku : quantitiesBySkuPerOrder) {
+            RuntimeException rejection = rejection(new TreeMap<>(quantitiesBySku), remaining);
+            if (rejection == null) {
+                quantitiesBySku.forEach((sku, quantity) -> {
+                    remaining.merge(sku, -quantity, Integer::sum);
+                    reserved.merge(sku, quantity, Integer::sum);
+                });
+            }
+            rejections.add(rejection);
+        }
+
+        if (!reserved.isEmpty()) {
+            decrement(reserved);
+        }
+        return rejections;
+    }
+
+    private static RuntimeException rejection(Map<String, Integer> ordered, Map<String, Integer> remaining) {
+        for (Map.Entry<String, Integer> line : ordered.entrySet()) {
+            Integer available = remaining.get(line.getKey());
+            if (available == null) {
+                return new ProductNotFoundException(line.getKey());
+            }
+            if (available < line.getValue()) {
+                return new InsufficientStockException(line.getKey());
+            }
+        }
+        return null;
+    }
+
+    /** Issues the conditional decrements of {@code ordered}, which must be sorted by SKU. */
+    private void decrement(Map<String, Integer> ordered) {
+        List<Object[]> batch = new ArrayList<>(ordered.size());
+        List<String> skus = new ArrayList<>(ordered.size());
+        ordered.forEach((sku, quantity) -> {
+            batch.add(new Object[]{quantity, sku, quantity});
+            skus.add(sku);
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(RESERVE_SQL, batch);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new InsufficientStockException(skus.get(i));
+            }
+        }
+
+        AfterCommit.run(() -> ordered.forEach((sku, quantity) -> stockLevelIndex.adjust(sku, -quantity)));
+    }
+
+    /**
+     * Writes the quantity in the caller's transaction, as JPA updates of a product leave the column
+     * alone, and moves the index by the difference once that transaction has committed. Reservations
+     * move the index by their deltas too, so the two cannot overwrite each other whichever commits
+     * last. The row version is left as it is, so the caller's own update of the product still passes
+     * its optimistic check.
+     */
+    @Override
+    @Transactional
+    public void restock(String sku, int availableQuantity) {
+        List<Integer> previous = jdbcTemplate.queryForList(LOCK_SQL, Integer.class, sku);
+        if (previous.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(RESTOCK_SQL, availableQuantity, sku);
+        int delta = availableQuantity - previous.get(0);
+        AfterCommit.run(() -> stockLevelIndex.adjust(sku, delta));
+    }
+
+    @Override
+    public Integer trackedQuantity(String sku) {
+        return null;
+    }
+}
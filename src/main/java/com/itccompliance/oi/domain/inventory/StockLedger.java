@@ -0,0 +1,245 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.domain.model.StockCheckpoint;
+import com.itccompliance.oi.domain.model.StockMovement;
+import com.itccompliance.oi.domain.model.StockMovementType;
+import com.itccompliance.oi.persistence.IdBlockAllocator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Append-only ledger of the stock movements of {@link InMemoryStockReservationEngine}: every
+ * reservation, release and restock becomes a {@link StockMovement} row, so the {@code products}
+ * rows are no longer rewritten per order and every change of a SKU's quantity is kept.
+ * <p>
+ * A movement recorded inside a transaction is inserted, together with the others of that
+ * transaction in one JDBC batch, just before it commits, so it is durable exactly when the order
+ * or restock it belongs to is and rolls back with it. Movements recorded outside a transaction
+ * are buffered and appended by {@link #flush()}. Every {@link #checkpoint()} tags the movements no
+ * checkpoint has folded yet, adds them to {@code products.available_quantity} and records a
+ * {@link StockCheckpoint}, in one transaction, so the column always holds the quantity as of the
+ * latest checkpoint. {@link #recover()} replays the untagged movements on top of the column.
+ * <p>
+ * Publishes {@code oi.inventory.ledger.appended} and the {@code oi.inventory.ledger.checkpoint}
+ * timer.
+ */
+@Component
+@ConditionalOnProperty(name = "oi.inventory.reservation-mode", havingValue = "in-memory", matchIfMissing = true)
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final String APPEND_SQL =
+            "INSERT INTO stock_movements (id, sku, type, quantity, recorded_at) VALUES (?, ?, ?, ?, ?)";
+    private static final String NEXT_CHECKPOINT_SQL = "SELECT COALESCE(MAX(id), 0) + 1 FROM stock_checkpoints";
+    private static final String TAG_SQL = "UPDATE stock_movements SET checkpoint_id = ? WHERE checkpoint_id IS NULL";
+    private static final String CHECKPOINT_SQL =
+            "INSERT INTO stock_checkpoints (id, movements, skus, taken_at) VALUES (?, ?, ?, ?)";
+    private static final String SEGMENT_SQL =
+            "SELECT sku, SUM(quantity) FROM stock_movements WHERE checkpoint_id = ? GROUP BY sku";
+    private static final String FOLD_SQL =
+            "UPDATE products SET available_quantity = available_quantity + ? WHERE sku = ?";
+    private static final String RECOVER_SQL =
+            "SELECT m.sku, p.available_quantity + SUM(m.quantity) FROM stock_movements m"
+                    + " JOIN products p ON p.sku = m.sku WHERE m.checkpoint_id IS NULL GROUP BY m.sku, p.available_quantity";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdBlockAllocator ids;
+    private final Queue<Movement> pending = new ConcurrentLinkedQueue<>();
+
+    private final Counter appended;
+    private final Timer checkpointTimer;
+
+    public StockLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ids = new IdBlockAllocator(jdbcTemplate, "stock_movements_seq", StockMovement.ID_BLOCK_SIZE);
+        this.appended = Counter.builder("oi.inventory.ledger.appended").register(meterRegistry);
+        this.checkpointTimer = Timer.builder("oi.inventory.ledger.checkpoint").register(meterRegistry);
+    }
+
+    /**
+     * Records a movement of {@code quantity} units, negative for stock taken. Inside a transaction
+     * it is inserted as part of that transaction; otherwise it is queued for the next flush.
+     */
+    public void append(String sku, StockMovementType type, int quantity) {
+        Movement movement = new Movement(sku, type, quantity, Instant.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionMovements().batch.add(movement);
+        } else {
+            pending.add(movement);
+        }
+    }
+
+    /**
+     * Records a movement whose quantity is only settled as the caller's transaction commits:
+     * {@code quantity} is called just before the movements of that transaction are inserted, and
+     * {@code committed} gets the same quantity once the transaction has committed, and never if it
+     * rolls back. Outside a transaction both are called right away.
+     */
+    public void appendOnCommit(String sku, StockMovementType type, IntSupplier quantity, IntConsumer committed) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionMovements movements = transactionMovements();
+            movements.onCommit.add(() -> {
+                int settled = quantity.getAsInt();
+                append(sku, type, settled);
+                movements.committed.add(() -> committed.accept(settled));
+            });
+        } else {
+            int settled = quantity.getAsInt();
+            append(sku, type, settled);
+            committed.accept(settled);
+        }
+    }
+
+    private TransactionMovements transactionMovements() {
+        TransactionMovements movements = (TransactionMovements) TransactionSynchronizationManager.getResource(this);
+        if (movements == null) {
+            movements = new TransactionMovements();
+            TransactionSynchronizationManager.bindResource(this, movements);
+            TransactionSynchronizationManager.registerSynchronization(movements);
+        }
+        return movements;
+    }
+
+    /**
+     * Appends the queued movements in one transaction. If it fails they are queued again and retried
+     * on the next flush, under new ids.
+     */
+    @Scheduled(fixedDelayString = "${oi.inventory.write-behind.flush-interval:50ms}")
+    public synchronized void flush() {
+        List<Movement> batch = new ArrayList<>();
+        for (Movement movement; (movement = pending.poll()) != null; ) {
+            batch.add(movement);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(batch));
+            appended.increment(batch.size());
+        } catch (RuntimeException e) {
+            pending.addAll(batch);
+            log.warn("Appending {} stock movements failed, will retry", batch.size(), e);
+        }
+    }
+
+    /**
+     * Flushes, then adds every movement no checkpoint has folded yet to its product's
+     * {@code available_quantity}. JPA never writes that column, so the row version is left alone:
+     * it only moves with catalog changes, and cached catalog entries and ETags stay valid.
+     */
+    @Scheduled(fixedDelayString = "${oi.inventory.ledger.checkpoint-interval:10s}")
+    public synchronized void checkpoint() {
+        flush();
+        try {
+            checkpointTimer.record(() -> transactionTemplate.executeWithoutResult(status -> fold()));
+        } catch (RuntimeException e) {
+            log.warn("Stock checkpoint failed, the next one will fold its movements", e);
+        }
+    }
+
+    /**
+     * Returns the quantity of every SKU with movements no checkpoint has folded yet: its
+     * {@code available_quantity} plus the sum of those movements. Every other SKU's quantity is
+     * its {@code available_quantity}.
+     */
+    public Map<String, Integer> recover() {
+        Map<String, Integer> quantities = new TreeMap<>();
+        jdbcTemplate.query(RECOVER_SQL, rs -> {
+            quantities.put(rs.getString(1), rs.getInt(2));
+        });
+        return quantities;
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    private void insert(List<Movement> batch) {
+        long[] movementIds = ids.next(batch.size());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Movement movement = batch.get(i);
+            rows.add(new Object[]{movementIds[i], movement.sku(), movement.type().name(), movement.quantity(),
+                    Timestamp.from(movement.recordedAt())});
+        }
+        jdbcTemplate.batchUpdate(APPEND_SQL, rows);
+    }
+
+    /**
+     * Tags before summing, so a movement that commits while the checkpoint runs is left untagged
+     * for the next one instead of being tagged without being added.
+     */
+    private void fold() {
+        long checkpointId = jdbcTemplate.queryForObject(NEXT_CHECKPOINT_SQL, Long.class);
+        int movements = jdbcTemplate.update(TAG_SQL, checkpointId);
+        if (movements == 0) {
+            return;
+        }
+
+        List<Object[]> changes = jdbcTemplate.query(SEGMENT_SQL,
+                (rs, row) -> new Object[]{rs.getLong(2), rs.getString(1)}, checkpointId);
+        jdbcTemplate.update(CHECKPOINT_SQL, checkpointId, movements, changes.size(), Timestamp.from(Instant.now()));
+        jdbcTemplate.batchUpdate(FOLD_SQL, changes);
+    }
+
+    /**
+     * Movements recorded in one transaction, inserted just before it commits. Any recorded after
+     * that, e.g. from an after-commit callback, are queued for the next flush once it has committed.
+     */
+    private final class TransactionMovements implements TransactionSynchronization {
+        private final List<Movement> batch = new ArrayList<>();
+        private final List<Runnable> onCommit = new ArrayList<>();
+        private final List<Runnable> committed = new ArrayList<>();
+        private int inserted;
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            onCommit.forEach(Runnable::run);
+            if (!batch.isEmpty()) {
+                insert(batch);
+            }
+            inserted = batch.size();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+            if (status == STATUS_COMMITTED) {
+                appended.increment(inserted);
+                pending.addAll(batch.subList(inserted, batch.size()));
+                committed.forEach(Runnable::run);
+            }
+        }
+    }
+
+    private record Movement(String sku, StockMovementType type, int quantity, Instant recordedAt) {}
+}
@@ -0,0 +1,240 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Available quantity of every SKU, ordered by quantity, so low-stock queries are a range scan
+ * over memory instead of a scan of the {@code products} table.
+ * <p>
+ * Each SKU has a slot holding its quantity in an {@link AtomicInteger}, so updates from the
+ * reservation engines take no lock: they swap the slot's quantity with a compare-and-set and queue
+ * the slot as moved. The ordering is one primitive {@code long} per SKU, its quantity in the high
+ * 32 bits and a dense SKU id in the low 32 bits, in a {@link ChunkedLongSortedSet}; it is only
+ * brought up to date with the moved slots by {@link #skusAtOrBelow}, under a lock that updates never
+ * take. The index is loaded from the table at startup and then kept current by the reservation
+ * engines and {@code ProductService}.
+ * <p>
+ * When an update moves a SKU across a registered watermark, a {@link StockWatermarkCrossedEvent}
+ * is published on the updating thread and counted in {@code oi.stock.watermark.crossings} tagged
+ * by {@code direction}. A listener that throws is logged and never fails the update.
+ */
+@Component
+public class StockLevelIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLevelIndex.class);
+
+    /** Quantity of a slot that has been created but not yet set. */
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter lowCrossings;
+    private final Counter replenishedCrossings;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Queue<Slot> moved = new ConcurrentLinkedQueue<>();
+    private final Lock orderLock = new ReentrantLock();
+    private final List<String> skusById = new ArrayList<>();
+    private final ChunkedLongSortedSet byQuantity = new ChunkedLongSortedSet();
+    private volatile int[] watermarks = new int[0];
+
+    public StockLevelIndex(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher,
+                           StockLevelIndexProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.lowCrossings = Counter.builder("oi.stock.watermark.crossings").tag("direction", "low")
+                .register(meterRegistry);
+        this.replenishedCrossings = Counter.builder("oi.stock.watermark.crossings").tag("direction", "replenished")
+                .register(meterRegistry);
+        properties.watermarks().forEach(this::registerWatermark);
+    }
+
+    /** Indexes every product; SKUs that start out below a watermark do not fire an event. */
+    @PostConstruct
+    public void load() {
+        jdbcTemplate.query("SELECT sku, available_quantity FROM products", rs -> {
+            int quantity = rs.getInt("available_quantity");
+            apply(slot(rs.getString("sku")), previous -> quantity, false);
+        });
+    }
+
+    /**
+     * Sets the quantity of a SKU, adding it if it is not indexed yet. The supplier is read again
+     * whenever a concurrent update got in first, so concurrent updates of the same SKU that read a
+     * live counter always leave the latest value behind, whatever order they arrive in.
+     */
+    public void update(String sku, IntSupplier quantity) {
+        apply(slot(sku), previous -> quantity.getAsInt(), true);
+    }
+
+    /**
+     * Adds {@code delta} to the quantity of an indexed SKU; ignored for SKUs that are not indexed.
+     * Deltas commute, so callers that only know how much they changed, not the resulting value,
+     * cannot leave a stale quantity behind.
+     */
+    public void adjust(String sku, int delta) {
+        Slot slot = slots.get(sku);
+        if (slot != null) {
+            apply(slot, previous -> previous == UNSET ? UNSET : previous + delta, true);
+        }
+    }
+
+    private void apply(Slot slot, IntUnaryOperator next, boolean notify) {
+        int previous;
+        int current;
+        do {
+            previous = slot.quantity.get();
+            current = next.applyAsInt(previous);
+            if (current == previous) {
+                return;
+            }
+        } while (!slot.quantity.compareAndSet(previous, current));
+
+        if (slot.moved.compareAndSet(false, true)) {
+            moved.add(slot);
+        }
+        if (notify) {
+            publishCrossings(slot.sku, previous == UNSET ? Integer.MAX_VALUE : previous, current);
+        }
+    }
+
+    /**
+     * SKUs whose available quantity is at most {@code threshold}, lowest quantity first.
+     */
+    public List<String> skusAtOrBelow(int threshold) {
+        long bound = key(threshold, -1);
+        List<String> result = new ArrayList<>();
+        orderLock.lock();
+        try {
+            reorderMoved();
+            byQuantity.forEachAscending(key -> {
+                if (key > bound) {
+                    return false;
+                }
+                result.add(skusById.get((int) key));
+                return true;
+            });
+        } finally {
+            orderLock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indexed quantity of a SKU, or {@code null} if it is not indexed.
+     */
+    public Integer quantity(String sku) {
+        Slot slot = slots.get(sku);
+        if (slot == null) {
+            return null;
+        }
+        int quantity = slot.quantity.get();
+        return quantity == UNSET ? null : quantity;
+    }
+
+    public synchronized void registerWatermark(int watermark) {
+        int[] current = watermarks;
+        if (Arrays.binarySearch(current, watermark) >= 0) {
+            return;
+        }
+        int[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = watermark;
+        Arrays.sort(updated);
+        watermarks = updated;
+    }
+
+    public synchronized void unregisterWatermark(int watermark) {
+        watermarks = Arrays.stream(watermarks).filter(existing -> existing != watermark).toArray();
+    }
+
+    private void publishCrossings(String sku, int previous, int current) {
+        int[] registered = watermarks;
+        boolean low = current < previous;
+        int lower = Math.min(previous, current);
+        int upper = Math.max(previous, current);
+        // a watermark w is crossed when one side is at or below it and the other above it
+        for (int watermark : registered) {
+            if (watermark >= lower && watermark < upper) {
+                (low ? lowCrossings : replenishedCrossings).increment();
+                StockWatermarkCrossedEvent crossing = new StockWatermarkCrossedEvent(sku, watermark, current, low);
+                try {
+                    eventPublisher.publishEvent(crossing);
+                } catch (RuntimeException e) {
+                    log.warn("Listener failed on {}", crossing, e);
+                }
+            }
+        }
+    }
+
+    private Slot slot(String sku) {
+        Slot slot = slots.get(sku);
+        return slot != null ? slot : slots.computeIfAbsent(sku, key -> {
+            orderLock.lock();
+            try {
+                skusById.add(key);
+                return new Slot(key, skusById.size() - 1);
+            } finally {
+                orderLock.unlock();
+            }
+        });
+    }
+
+    /** Moves every slot updated since the last call to its current place in the ordering. */
+    private void reorderMoved() {
+        for (Slot slot; (slot = moved.poll()) != null; ) {
+            slot.moved.set(false);
+            int quantity = slot.quantity.get();
+            if (quantity == slot.ordered) {
+                continue;
+            }
+            if (slot.ordered != UNSET) {
+                byQuantity.remove(key(slot.ordered, slot.id));
+            }
+            if (quantity != UNSET) {
+                byQuantity.add(key(quantity, slot.id));
+            }
+            slot.ordered = quantity;
+        }
+    }
+
+    /** Orders by quantity first; the unsigned SKU id only breaks ties. */
+    private static long key(int quantity, int skuId) {
+        return ((long) quantity << 32) | (skuId & 0xFFFF_FFFFL);
+    }
+
+    private static final class Slot {
+        private final String sku;
+        private final int id;
+        private final AtomicInteger quantity = new AtomicInteger(UNSET);
+        private final AtomicBoolean moved = new AtomicBoolean();
+        /** Quantity the slot is filed under in {@code byQuantity}; guarded by {@code orderLock}. */
+        private int ordered = UNSET;
+
+        private Slot(String sku, int id) {
+            this.sku = sku;
+            this.id = id;
+        }
+    }
+}
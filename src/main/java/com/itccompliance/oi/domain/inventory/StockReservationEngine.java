@@ -0,0 +1,42 @@
+package com.itccompliance.oi.domain.inventory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reserves stock for an order. Which implementation is active is chosen with
+ * {@code oi.inventory.reservation-mode}: {@code in-memory} (default) or {@code jdbc}.
+ */
+public interface StockReservationEngine {
+
+    /**
+     * Reserves every SKU/quantity pair or none of them.
+     *
+     * @throws com.itccompliance.oi.domain.exception.ProductNotFoundException if a SKU does not exist
+     * @throws com.itccompliance.oi.domain.exception.InsufficientStockException if a SKU cannot be satisfied
+     */
+    void reserve(Map<String, Integer> quantitiesBySku);
+
+    /**
+     * Reserves several orders in one pass, each one completely or not at all, independently of the
+     * others. Orders are decided in list order, so an earlier order wins stock that a later one
+     * also asks for.
+     *
+     * @return one entry per order, in the same order: {@code null} if it was reserved, otherwise the
+     *         {@link com.itccompliance.oi.domain.exception.ProductNotFoundException} or
+     *         {@link com.itccompliance.oi.domain.exception.InsufficientStockException} it was rejected with
+     */
+    List<RuntimeException> reserveEach(List<Map<String, Integer>> quantitiesBySkuPerOrder);
+
+    /**
+     * Replaces the available quantity of a SKU, e.g. by a restock. Engines own the
+     * {@code available_quantity} column, which JPA updates of a product do not write.
+     */
+    void restock(String sku, int availableQuantity);
+
+    /**
+     * Returns the live quantity if the engine holds a fresher value than the {@code products} table,
+     * otherwise {@code null}.
+     */
+    Integer trackedQuantity(String sku);
+}
@@ -0,0 +1,15 @@
+package com.itccompliance.oi.domain.inventory;
+
+/**
+ * Published by {@link StockLevelIndex} when the available quantity of a SKU moves across a
+ * registered low-stock watermark.
+ *
+ * @param low {@code true} when the quantity dropped to or below the watermark, {@code false} when
+ *            it was replenished above it
+ */
+public record StockWatermarkCrossedEvent(
+        String sku,
+        int watermark,
+        int quantity,
+        boolean low
+) {}
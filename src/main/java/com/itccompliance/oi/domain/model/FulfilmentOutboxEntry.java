@@ -0,0 +1,75 @@
+package com.itccompliance.oi.domain.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * A pending fulfilment dispatch, written in the same transaction as its order and deleted in the
+ * same transaction that fulfils it.
+ */
+@Entity
+@Table(name = "fulfilment_outbox", indexes = @Index(name = "idx_fulfilment_outbox_order_id", columnList = "orderId"))
+public class FulfilmentOutboxEntry {
+    @Id
+    @GeneratedValue
+    private Long id;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant claimedUntil;
+
+    private int attempts;
+
+    public FulfilmentOutboxEntry() {
+    }
+
+    public FulfilmentOutboxEntry(Long orderId, Instant createdAt) {
+        this.orderId = orderId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public void setClaimedUntil(Instant claimedUntil) {
+        this.claimedUntil = claimedUntil;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+}
@@ -1,14 +1,24 @@
 package com.itccompliance.oi.domain.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_status_id", columnList = "status, id"),
+        // the oldest unfulfilled order is the first entry of the RESERVED range
+        @Index(name = "idx_orders_status_reserved_at", columnList = "status, reservedAt")
+})
 public class Order {
+    /** Ids reserved per sequence call. */
+    public static final int ID_BLOCK_SIZE = 100;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     private String customerEmail;
@@ -16,7 +26,13 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status;
 
+    private Instant reservedAt;
+
+    private Instant fulfilledAt;
+
+    // loads the items of a whole page of orders, up to the largest page GET /orders serves, in one query
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 1000)
     private List<OrderItem> items;
 
     public Order() {
@@ -47,6 +63,22 @@ public class Order {
         this.status = status;
     }
 
+    public Instant getReservedAt() {
+        return reservedAt;
+    }
+
+    public void setReservedAt(Instant reservedAt) {
+        this.reservedAt = reservedAt;
+    }
+
+    public Instant getFulfilledAt() {
+        return fulfilledAt;
+    }
+
+    public void setFulfilledAt(Instant fulfilledAt) {
+        this.fulfilledAt = fulfilledAt;
+    }
+
     public List<OrderItem> getItems() {
         return items;
     }
@@ -5,8 +5,12 @@ import jakarta.persistence.*;
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
+    /** Ids reserved per sequence call, enough for the lines of many orders. */
+    public static final int ID_BLOCK_SIZE = 1000;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     private String sku;
@@ -7,8 +7,12 @@ import java.math.BigDecimal;
 @Entity
 @Table(name = "products")
 public class Product {
+    /** Ids reserved per sequence call; bulk imports take their ids from the same blocks. */
+    public static final int ID_BLOCK_SIZE = 1000;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(unique = true)
@@ -16,8 +20,17 @@ public class Product {
 
     private String name;
     private BigDecimal price;
+
+    /**
+     * Written on insert and afterwards only by the reservation engine, never by a JPA update, since
+     * in {@code in-memory} mode the column holds the quantity as of the latest stock ledger checkpoint.
+     */
+    @Column(updatable = false)
     private int availableQuantity;
 
+    @Version
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -57,4 +70,12 @@ public class Product {
     public void setAvailableQuantity(int availableQuantity) {
         this.availableQuantity = availableQuantity;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,45 @@
+package com.itccompliance.oi.domain.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Marks that the stock movements tagged with this checkpoint's {@code id} have been added to
+ * {@code products.available_quantity}. Movements that no checkpoint has tagged yet are replayed on
+ * recovery.
+ * <p>
+ * Movements are tagged rather than taken as an id range because they are written in the
+ * transactions of the orders they belong to, so a movement can commit after one with a higher id.
+ * {@code id} is one more than the latest checkpoint's, so two checkpoints taken at once collide on
+ * insert and the second rolls back with its tags.
+ */
+@Entity
+@Table(name = "stock_checkpoints")
+public class StockCheckpoint {
+    @Id
+    private Long id;
+
+    private int movements;
+
+    private int skus;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getMovements() {
+        return movements;
+    }
+
+    public int getSkus() {
+        return skus;
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+}
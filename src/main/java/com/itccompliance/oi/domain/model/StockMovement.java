@@ -0,0 +1,63 @@
+package com.itccompliance.oi.domain.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * One change of a SKU's available quantity, appended to the {@code stock_movements} ledger. Only
+ * {@code checkpointId} is ever updated, once, by the checkpoint that folds the movement in.
+ * {@code quantity} is the signed change: negative for a reservation, positive for a release, and
+ * the difference to the previous quantity for a restock. Movements therefore add up in any order,
+ * and the quantity of a SKU is its checkpointed quantity plus the sum of its movements that no
+ * checkpoint has folded yet, see {@link StockCheckpoint}.
+ */
+@Entity
+@Table(name = "stock_movements", indexes = @Index(name = "idx_stock_movements_checkpoint_id", columnList = "checkpointId"))
+public class StockMovement {
+    /** Ids reserved per sequence call; the ledger appends with plain JDBC and takes ids from the same blocks. */
+    public static final int ID_BLOCK_SIZE = 1000;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movements_seq")
+    @SequenceGenerator(name = "stock_movements_seq", sequenceName = "stock_movements_seq", allocationSize = ID_BLOCK_SIZE)
+    private Long id;
+
+    @Column(nullable = false)
+    private String sku;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockMovementType type;
+
+    private int quantity;
+
+    @Column(nullable = false)
+    private Instant recordedAt;
+
+    private Long checkpointId;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public StockMovementType getType() {
+        return type;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public Instant getRecordedAt() {
+        return recordedAt;
+    }
+
+    public Long getCheckpointId() {
+        return checkpointId;
+    }
+}
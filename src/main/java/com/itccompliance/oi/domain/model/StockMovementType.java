@@ -0,0 +1,5 @@
+package com.itccompliance.oi.domain.model;
+
+public enum StockMovementType {
+    RESERVATION, RELEASE, RESTOCK
+}
@@ -0,0 +1,54 @@
+package com.itccompliance.oi.domain.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One timer per constant of an enum, all under {@code name} and told apart by the tag {@code tagKey},
+ * whose value is the constant's name in lower case. The enum bounds the tag's cardinality, and the
+ * timers are looked up by ordinal, so recording costs no map lookup or tag allocation.
+ * <p>
+ * Callers thread the clock readings through: {@link #start()} returns the start of the first
+ * measurement and {@link #record} the end of the one it recorded, which is the start of the next.
+ * When disabled no timer is registered and neither method reads the clock.
+ */
+public final class EnumTimers<E extends Enum<E>> {
+
+    private final Timer[] timers;
+
+    public EnumTimers(String name, String tagKey, Class<E> type, boolean enabled, MeterRegistry meterRegistry) {
+        if (!enabled) {
+            this.timers = null;
+            return;
+        }
+        E[] constants = type.getEnumConstants();
+        this.timers = new Timer[constants.length];
+        for (E constant : constants) {
+            timers[constant.ordinal()] = Timer.builder(name)
+                    .tag(tagKey, constant.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+
+    public long start() {
+        return timers == null ? 0L : System.nanoTime();
+    }
+
+    /** Records the time since {@code startNanos} under {@code constant} and returns the current time. */
+    public long record(E constant, long startNanos) {
+        if (timers == null) {
+            return 0L;
+        }
+        long now = System.nanoTime();
+        timers[constant.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    public boolean enabled() {
+        return timers != null;
+    }
+}
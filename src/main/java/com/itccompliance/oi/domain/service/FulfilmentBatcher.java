@@ -0,0 +1,172 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentBatchProperties;
+import com.itccompliance.oi.diagnostics.FulfilmentTransitionEvent;
+import com.itccompliance.oi.domain.concurrency.BatchingLoop;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderRepository.ReservedOrder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Collects orders whose fulfilment is due and moves them from {@code RESERVED} to
+ * {@code FULFILLED} in bulk, one {@code UPDATE ... WHERE id IN (...)} per batch. The same
+ * transaction deletes the orders' outbox entries, so an entry outlives its order's fulfilment
+ * only if the flush fails, in which case it is redelivered once its lease expires. Fulfilled orders
+ * are stamped with the flush time, and their lag since reservation is recorded in {@link FulfilmentLag}
+ * once the flush has committed, along with a {@link FulfilmentTransitionEvent} per order for JFR.
+ * <p>
+ * A {@link BatchingLoop} flushes a batch once it holds {@code maxSize} ids or its first id has waited
+ * {@code maxDelay}. Publishes {@code oi.fulfilment.batch.size}, {@code oi.fulfilment.batch.rows},
+ * the {@code oi.fulfilment.batch.flush} timer and {@code oi.fulfilment.outbox.drained}, the count of
+ * outbox entries completed.
+ */
+@Component
+public class FulfilmentBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(FulfilmentBatcher.class);
+    private static final EventType FULFILMENT_TRANSITION = EventType.getEventType(FulfilmentTransitionEvent.class);
+    private static final Duration STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final OrderRepository orderRepository;
+    private final FulfilmentOutboxRepository outboxRepository;
+    private final OrderStatusCounters statusCounters;
+    private final OrderVersions orderVersions;
+    private final FulfilmentLag fulfilmentLag;
+    private final TransactionTemplate transactionTemplate;
+    private final BatchingLoop<Long> loop;
+
+    private final DistributionSummary batchSize;
+    private final DistributionSummary rowsPerFlush;
+    private final Timer flushTimer;
+    private final Counter drained;
+
+    public FulfilmentBatcher(OrderRepository orderRepository, FulfilmentOutboxRepository outboxRepository,
+                             OrderStatusCounters statusCounters, OrderVersions orderVersions,
+                             FulfilmentLag fulfilmentLag, PlatformTransactionManager transactionManager,
+                             FulfilmentBatchProperties properties, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
+        this.statusCounters = statusCounters;
+        this.orderVersions = orderVersions;
+        this.fulfilmentLag = fulfilmentLag;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loop = new BatchingLoop<>("fulfilment-batcher", properties.maxSize(), properties.maxDelay(),
+                properties.queueCapacity(), this::flush, FulfilmentBatcher::abandon);
+
+        this.batchSize = DistributionSummary.builder("oi.fulfilment.batch.size").register(meterRegistry);
+        this.rowsPerFlush = DistributionSummary.builder("oi.fulfilment.batch.rows").register(meterRegistry);
+        this.flushTimer = Timer.builder("oi.fulfilment.batch.flush").register(meterRegistry);
+        this.drained = Counter.builder("oi.fulfilment.outbox.drained").register(meterRegistry);
+    }
+
+    /**
+     * Queues an order for the next bulk update, blocking while the queue is full so a slow database
+     * pushes back on the fulfilment workers.
+     */
+    public void submit(Long orderId) {
+        try {
+            if (!loop.put(orderId)) {
+                throw new IllegalStateException(
+                        "Fulfilment batcher is stopped, order " + orderId + " will be redelivered");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queuing fulfilment for order: " + orderId, e);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        loop.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        loop.stop(STOP_TIMEOUT);
+    }
+
+    private void flush(List<Long> batch) {
+        batchSize.record(batch.size());
+        try {
+            Instant fulfilledAt = Instant.now();
+            FulfilmentTransitionEvent[] events = beginFulfilled(batch);
+            Flush flush = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                List<ReservedOrder> reserved = orderRepository.findReservedByIdInAndStatus(batch, OrderStatus.RESERVED);
+                return new Flush(orderRepository.markFulfilled(batch, fulfilledAt),
+                        outboxRepository.deleteByOrderIds(batch), reserved);
+            }));
+            rowsPerFlush.record(flush.fulfilled());
+            statusCounters.transitioned(OrderStatus.RESERVED, OrderStatus.FULFILLED, flush.fulfilled());
+            orderVersions.invalidate(batch);
+            drained.increment(flush.drained());
+            fulfilmentLag.record(flush.reserved(), fulfilledAt);
+            commitFulfilled(events, batch, flush.reserved());
+        } catch (RuntimeException e) {
+            log.error("Bulk fulfilment of {} orders failed, their outbox entries will be redelivered", batch.size(), e);
+        }
+    }
+
+    /**
+     * Begins one {@code fulfilled} event per order of the batch, or returns {@code null} when no
+     * recording has the event enabled. Which orders the flush fulfils is only known once it has
+     * run, and an event's duration can only be measured from its own {@code begin}.
+     */
+    private static FulfilmentTransitionEvent[] beginFulfilled(List<Long> batch) {
+        if (!FULFILMENT_TRANSITION.isEnabled()) {
+            return null;
+        }
+        FulfilmentTransitionEvent[] events = new FulfilmentTransitionEvent[batch.size()];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new FulfilmentTransitionEvent();
+            events[i].begin();
+        }
+        return events;
+    }
+
+    /** Commits the events of the orders the flush moved to {@code FULFILLED}; the rest are dropped. */
+    private static void commitFulfilled(FulfilmentTransitionEvent[] events, List<Long> batch,
+                                        List<ReservedOrder> fulfilled) {
+        if (events == null) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        fulfilled.forEach(order -> ids.add(order.getId()));
+        for (int i = 0; i < events.length; i++) {
+            FulfilmentTransitionEvent event = events[i];
+            event.end();
+            if (ids.contains(batch.get(i)) && event.shouldCommit()) {
+                event.orderId = batch.get(i);
+                event.transition = "fulfilled";
+                event.batchSize = batch.size();
+                event.commit();
+            }
+        }
+    }
+
+    private static void abandon(List<Long> batch) {
+        log.warn("Fulfilment of {} orders was not flushed before shutdown, their outbox entries will be redelivered",
+                batch.size());
+    }
+
+    private record Flush(int fulfilled, int drained, List<ReservedOrder> reserved) {}
+}
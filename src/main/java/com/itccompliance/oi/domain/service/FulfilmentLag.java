@@ -0,0 +1,66 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentLagProperties;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderRepository.ReservedOrder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How long orders wait between reservation and fulfilment.
+ * <p>
+ * {@code oi.fulfilment.lag} records the time from {@code reservedAt} to {@code fulfilledAt} of every
+ * fulfilled order, with one histogram bucket per configured SLO. The
+ * {@code oi.fulfilment.oldest.unfulfilled.age} gauge is the age of the oldest order still
+ * {@code RESERVED}, or zero when there is none. It reads the first entry of the
+ * {@code (status, reserved_at)} index whenever it is published, so a stalled fulfilment pipeline
+ * shows up before the stuck orders record any lag.
+ */
+@Component
+public class FulfilmentLag {
+
+    private final OrderRepository orderRepository;
+    private final Timer lag;
+
+    public FulfilmentLag(OrderRepository orderRepository, FulfilmentLagProperties properties,
+                         MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.lag = Timer.builder("oi.fulfilment.lag")
+                .serviceLevelObjectives(properties.slos().toArray(Duration[]::new))
+                .register(meterRegistry);
+        TimeGauge.builder("oi.fulfilment.oldest.unfulfilled.age", this, TimeUnit.MILLISECONDS,
+                        fulfilmentLag -> fulfilmentLag.oldestUnfulfilledAge().toMillis())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the lag of orders fulfilled together at {@code fulfilledAt}; orders without a
+     * reservation time are skipped.
+     */
+    public void record(Collection<ReservedOrder> orders, Instant fulfilledAt) {
+        for (ReservedOrder order : orders) {
+            if (order.getReservedAt() != null) {
+                lag.record(Duration.between(order.getReservedAt(), fulfilledAt));
+            }
+        }
+    }
+
+    public Duration oldestUnfulfilledAge() {
+        List<Instant> oldest = orderRepository.findReservedAtByStatusOrderByReservedAt(OrderStatus.RESERVED, Limit.of(1));
+        if (oldest.isEmpty()) {
+            return Duration.ZERO;
+        }
+        Duration age = Duration.between(oldest.get(0), Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+}
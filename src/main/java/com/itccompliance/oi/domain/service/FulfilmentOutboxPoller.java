@@ -0,0 +1,122 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentOutboxProperties;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drains the {@code fulfilment_outbox} table into {@link FulfilmentService#dispatch(Long)}.
+ * <p>
+ * Entries are claimed with {@code SELECT ... FOR UPDATE SKIP LOCKED}, so concurrent pollers never
+ * block on or claim the same rows, and stamped with a lease. An entry is only deleted in the
+ * transaction that fulfils its order; if the process dies or a flush fails, the lease expires and
+ * the entry is claimed again, giving at-least-once delivery. Publishes {@code oi.fulfilment.outbox.lag}
+ * (time from order commit to claim) and the {@code oi.fulfilment.outbox.claimed} and
+ * {@code oi.fulfilment.outbox.redelivered} counters.
+ */
+@Component
+public class FulfilmentOutboxPoller {
+
+    private static final Logger log = LoggerFactory.getLogger(FulfilmentOutboxPoller.class);
+
+    private static final String CLAIMABLE_SQL = "SELECT id, order_id, created_at, attempts FROM fulfilment_outbox"
+            + " WHERE claimed_until IS NULL OR claimed_until <= ? ORDER BY id FETCH FIRST ? ROWS ONLY FOR UPDATE SKIP LOCKED";
+    private static final String CLAIM_SQL = "UPDATE fulfilment_outbox SET claimed_until = ?, attempts = attempts + 1 WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final FulfilmentOutboxRepository outboxRepository;
+    private final FulfilmentService fulfilmentService;
+    private final int batchSize;
+    private final Duration lease;
+
+    private final Timer lag;
+    private final Counter claimed;
+    private final Counter redelivered;
+
+    public FulfilmentOutboxPoller(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  FulfilmentOutboxRepository outboxRepository, FulfilmentService fulfilmentService,
+                                  FulfilmentOutboxProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxRepository = outboxRepository;
+        this.fulfilmentService = fulfilmentService;
+        this.batchSize = properties.batchSize();
+        this.lease = properties.lease();
+
+        this.lag = Timer.builder("oi.fulfilment.outbox.lag").register(meterRegistry);
+        this.claimed = Counter.builder("oi.fulfilment.outbox.claimed").register(meterRegistry);
+        this.redelivered = Counter.builder("oi.fulfilment.outbox.redelivered").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${oi.fulfilment.outbox.poll-interval:10ms}")
+    public void poll() {
+        try {
+            List<Claim> claims;
+            do {
+                claims = claim();
+            } while (dispatch(claims) && claims.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Fulfilment outbox poll failed, will retry", e);
+        }
+    }
+
+    private List<Claim> claim() {
+        List<Claim> claims = transactionTemplate.execute(status -> {
+            Timestamp now = Timestamp.from(Instant.now());
+            List<Claim> rows = jdbcTemplate.query(CLAIMABLE_SQL, (rs, rowNum) -> new Claim(
+                    rs.getLong("id"), rs.getLong("order_id"),
+                    rs.getTimestamp("created_at").toInstant(), rs.getInt("attempts")), now, batchSize);
+            if (!rows.isEmpty()) {
+                Timestamp claimedUntil = Timestamp.from(now.toInstant().plus(lease));
+                List<Object[]> batch = new ArrayList<>(rows.size());
+                rows.forEach(row -> batch.add(new Object[]{claimedUntil, row.id()}));
+                jdbcTemplate.batchUpdate(CLAIM_SQL, batch);
+            }
+            return rows;
+        });
+        return claims == null ? List.of() : claims;
+    }
+
+    /**
+     * Hands claimed entries to fulfilment. If the executor is at capacity, the remaining claims are
+     * released straight away rather than waiting out their lease; returns false in that case.
+     */
+    private boolean dispatch(List<Claim> claims) {
+        Instant now = Instant.now();
+        for (int i = 0; i < claims.size(); i++) {
+            Claim claim = claims.get(i);
+            try {
+                fulfilmentService.dispatch(claim.orderId());
+            } catch (TaskRejectedException e) {
+                List<Long> unsent = claims.subList(i, claims.size()).stream().map(Claim::id).toList();
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.releaseClaims(unsent));
+                return false;
+            }
+            claimed.increment();
+            if (claim.attempts() > 0) {
+                redelivered.increment();
+            }
+            lag.record(Duration.between(claim.createdAt(), now));
+        }
+        return true;
+    }
+
+    private record Claim(long id, long orderId, Instant createdAt, int attempts) {}
+}
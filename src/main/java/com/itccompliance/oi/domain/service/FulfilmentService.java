@@ -1,35 +1,87 @@
 package com.itccompliance.oi.domain.service;
 
-import com.itccompliance.oi.domain.model.Order;
-import com.itccompliance.oi.domain.model.OrderStatus;
-import com.itccompliance.oi.persistence.OrderRepository;
-import org.springframework.scheduling.annotation.Async;
+import com.itccompliance.oi.config.PhaseMetricsProperties;
+import com.itccompliance.oi.diagnostics.FulfilmentTransitionEvent;
+import com.itccompliance.oi.domain.concurrency.BoundedTaskExecutor;
+import com.itccompliance.oi.domain.model.FulfilmentOutboxEntry;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * Moves orders through fulfilment: outbox entry, simulated work, bulk status update.
+ * <p>
+ * Unless {@code oi.metrics.phases.enabled} is off, the service's own steps are timed in
+ * {@code oi.fulfilment.phase} tagged by {@code phase}: {@code enqueue} (writing the outbox entry),
+ * {@code schedule} (handing the order to the fulfilment timer) and {@code handoff} (queuing the due
+ * order for {@link FulfilmentBatcher}, which blocks while the batcher is behind). Claiming and the
+ * bulk update itself are timed by {@link FulfilmentOutboxPoller} and {@link FulfilmentBatcher}.
+ * Enqueuing and dispatching are also recorded as {@link FulfilmentTransitionEvent}s for JFR.
+ */
 @Service
 public class FulfilmentService {
 
-    private final OrderRepository orderRepository;
+    private enum Phase { ENQUEUE, SCHEDULE, HANDOFF }
 
-    public FulfilmentService(OrderRepository orderRepository) {
-        this.orderRepository = orderRepository;
+    private final FulfilmentOutboxRepository outboxRepository;
+    private final BoundedTaskExecutor fulfilmentExecutor;
+    private final FulfilmentBatcher fulfilmentBatcher;
+    private final EnumTimers<Phase> phases;
+
+    public FulfilmentService(FulfilmentOutboxRepository outboxRepository, BoundedTaskExecutor fulfilmentExecutor,
+                             FulfilmentBatcher fulfilmentBatcher, PhaseMetricsProperties phaseMetricsProperties,
+                             MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.fulfilmentExecutor = fulfilmentExecutor;
+        this.fulfilmentBatcher = fulfilmentBatcher;
+        this.phases = new EnumTimers<>("oi.fulfilment.phase", "phase", Phase.class,
+                phaseMetricsProperties.enabled(), meterRegistry);
     }
 
-    @Async
-    @Transactional
+    /**
+     * Records that the order is due for fulfilment. Call this inside the transaction that saves the
+     * order, so the outbox entry becomes visible to {@link FulfilmentOutboxPoller} only once the
+     * order itself has committed, and is lost only if the order is.
+     */
     public void processFulfilment(Long orderId) {
-        try {
-            Thread.sleep(ThreadLocalRandom.current().nextInt(100, 300));
+        long start = phases.start();
+        FulfilmentTransitionEvent event = new FulfilmentTransitionEvent();
+        event.begin();
+        outboxRepository.save(new FulfilmentOutboxEntry(orderId, Instant.now()));
+        commit(event, orderId, "enqueued");
+        phases.record(Phase.ENQUEUE, start);
+    }
 
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new IllegalStateException("Order not found: " + orderId));
+    /**
+     * Schedules a claimed order to be fulfilled after the simulated 100–300ms of fulfilment work. The
+     * delay runs on a timer, so no thread, transaction or connection is held while waiting; once
+     * due, the order joins the next bulk status update of {@link FulfilmentBatcher}.
+     */
+    public void dispatch(Long orderId) {
+        Duration delay = Duration.ofMillis(ThreadLocalRandom.current().nextInt(100, 300));
+        long start = phases.start();
+        FulfilmentTransitionEvent event = new FulfilmentTransitionEvent();
+        event.begin();
+        fulfilmentExecutor.schedule(() -> {
+            long due = phases.start();
+            fulfilmentBatcher.submit(orderId);
+            phases.record(Phase.HANDOFF, due);
+        }, delay);
+        commit(event, orderId, "dispatched");
+        phases.record(Phase.SCHEDULE, start);
+    }
 
-            order.setStatus(OrderStatus.FULFILLED);
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Fulfilment process interrupted for order: " + orderId, e);
+    private static void commit(FulfilmentTransitionEvent event, Long orderId, String transition) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = orderId;
+            event.transition = transition;
+            event.batchSize = 1;
+            event.commit();
         }
     }
 }
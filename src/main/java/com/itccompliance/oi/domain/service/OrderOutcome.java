@@ -0,0 +1,22 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.domain.model.Order;
+
+/**
+ * What happened to one order of a batch: either the created order or the exception it was
+ * rejected with.
+ */
+public record OrderOutcome(Order order, RuntimeException rejection) {
+
+    public static OrderOutcome accepted(Order order) {
+        return new OrderOutcome(order, null);
+    }
+
+    public static OrderOutcome rejected(RuntimeException rejection) {
+        return new OrderOutcome(null, rejection);
+    }
+
+    public boolean isAccepted() {
+        return rejection == null;
+    }
+}
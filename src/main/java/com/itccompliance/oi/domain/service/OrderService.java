@@ -1,53 +1,331 @@
 package com.itccompliance.oi.domain.service;
 
+import com.itccompliance.oi.api.dto.CreateOrderRequest;
 import com.itccompliance.oi.api.dto.OrderItemRequest;
+import com.itccompliance.oi.config.OrderGroupCommitProperties;
+import com.itccompliance.oi.config.PhaseMetricsProperties;
+import com.itccompliance.oi.diagnostics.OrderCreationEvent;
+import com.itccompliance.oi.diagnostics.StockReservationEvent;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryExecutor;
+import com.itccompliance.oi.domain.concurrency.GroupCommitter;
+import com.itccompliance.oi.domain.concurrency.SingleFlight;
 import com.itccompliance.oi.domain.exception.InsufficientStockException;
 import com.itccompliance.oi.domain.exception.OrderNotFoundException;
 import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.inventory.StockReservationEngine;
 import com.itccompliance.oi.domain.model.Order;
 import com.itccompliance.oi.domain.model.OrderItem;
 import com.itccompliance.oi.domain.model.OrderStatus;
-import com.itccompliance.oi.domain.model.Product;
 import com.itccompliance.oi.persistence.OrderRepository;
-import com.itccompliance.oi.persistence.ProductRepository;
+import com.itccompliance.oi.persistence.OrderStreamRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
+/**
+ * Creates and reads orders.
+ * <p>
+ * Unless {@code oi.metrics.phases.enabled} is off, every {@link #createOrder} call is timed in
+ * {@code oi.order.create} tagged by {@code outcome}, and its transaction in
+ * {@code oi.order.create.phase} tagged by {@code phase}: {@code reserve} (SKU lookup and stock check
+ * in the reservation engine), {@code save} (order and items handed to Hibernate, which assigns their
+ * ids), {@code dispatch} (status bookkeeping and the fulfilment outbox entry) and {@code commit}
+ * (flushing the inserts and committing). {@link #createOrders} records the same phases per batch
+ * in {@code oi.order.batch.phase}.
+ * <p>
+ * Each {@link #createOrder} call and each reservation attempt is also recorded as a JFR event,
+ * {@link OrderCreationEvent} and {@link StockReservationEvent}, which cost next to nothing unless a
+ * recording is running.
+ */
 @Service
 public class OrderService {
 
-    private final ProductRepository productRepository;
+    private enum Phase { RESERVE, SAVE, DISPATCH, COMMIT }
+
+    private enum Outcome { CREATED, INSUFFICIENT_STOCK, PRODUCT_NOT_FOUND, CONFLICT, REJECTED, FAILED }
+
+    private final StockReservationEngine reservationEngine;
     private final OrderRepository orderRepository;
+    private final OrderStreamRepository orderStreamRepository;
     private final FulfilmentService fulfilmentService;
+    private final ConflictRetryExecutor retryExecutor;
+    private final OrderStatusCounters statusCounters;
+    private final OrderVersions orderVersions;
+    private final SingleFlight<Long, Optional<Order>> orderLoads;
+    private final GroupCommitter<CreateOrderRequest, OrderOutcome> groupCommitter;
+    private final EnumTimers<Outcome> createOutcomes;
+    private final EnumTimers<Phase> createPhases;
+    private final EnumTimers<Phase> batchPhases;
 
-    public OrderService(ProductRepository productRepository, OrderRepository orderRepository, FulfilmentService fulfilmentService) {
-        this.productRepository = productRepository;
+    public OrderService(StockReservationEngine reservationEngine, OrderRepository orderRepository,
+                        OrderStreamRepository orderStreamRepository, FulfilmentService fulfilmentService,
+                        ConflictRetryExecutor retryExecutor, OrderStatusCounters statusCounters,
+                        OrderVersions orderVersions, OrderGroupCommitProperties groupCommitProperties,
+                        PhaseMetricsProperties phaseMetricsProperties, MeterRegistry meterRegistry) {
+        this.reservationEngine = reservationEngine;
         this.orderRepository = orderRepository;
+        this.orderStreamRepository = orderStreamRepository;
         this.fulfilmentService = fulfilmentService;
+        this.retryExecutor = retryExecutor;
+        this.statusCounters = statusCounters;
+        this.orderVersions = orderVersions;
+        this.orderLoads = new SingleFlight<>("orders", meterRegistry);
+        this.groupCommitter = groupCommitProperties.enabled()
+                ? new GroupCommitter<>("orders", groupCommitProperties.maxSize(), groupCommitProperties.maxDelay(),
+                        groupCommitProperties.queueCapacity(), this::createOrders,
+                        request -> OrderOutcome.accepted(createAlone(request.customerEmail(), request.items())),
+                        meterRegistry)
+                : null;
+        boolean timed = phaseMetricsProperties.enabled();
+        this.createOutcomes = new EnumTimers<>("oi.order.create", "outcome", Outcome.class, timed, meterRegistry);
+        this.createPhases = new EnumTimers<>("oi.order.create.phase", "phase", Phase.class, timed, meterRegistry);
+        this.batchPhases = new EnumTimers<>("oi.order.batch.phase", "phase", Phase.class, timed, meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (groupCommitter != null) {
+            groupCommitter.start();
+        }
     }
 
-    @Transactional
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (groupCommitter != null) {
+            groupCommitter.stop();
+        }
+    }
+
+    /**
+     * With {@code oi.orders.group-commit.enabled}, concurrent calls made outside a transaction are
+     * committed together through {@link #createOrders}; each caller still gets its own order or
+     * exception. If the shared transaction fails, each order of the group is retried in its own
+     * transaction, so one bad order does not fail the rest.
+     */
     public Order createOrder(String customerEmail, List<OrderItemRequest> orderItemRequests) {
-        Order order = new Order();
-        order.setCustomerEmail(customerEmail);
+        OrderCreationEvent event = new OrderCreationEvent();
+        event.begin();
+        long start = createOutcomes.start();
+        try {
+            Order order = create(customerEmail, orderItemRequests);
+            createOutcomes.record(Outcome.CREATED, start);
+            commit(event, order.getId(), orderItemRequests.size(), Outcome.CREATED);
+            return order;
+        } catch (RuntimeException failure) {
+            Outcome outcome = outcome(failure);
+            createOutcomes.record(outcome, start);
+            commit(event, 0L, orderItemRequests.size(), outcome);
+            throw failure;
+        }
+    }
 
-        List<OrderItem> orderItems = new ArrayList<>();
+    private static void commit(OrderCreationEvent event, long orderId, int lines, Outcome outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = orderId;
+            event.lines = lines;
+            event.outcome = outcome.name().toLowerCase(Locale.ROOT);
+            event.commit();
+        }
+    }
+
+    private Order create(String customerEmail, List<OrderItemRequest> orderItemRequests) {
+        if (groupCommitter != null && !TransactionSynchronizationManager.isActualTransactionActive()) {
+            OrderOutcome outcome = groupCommitter.submit(new CreateOrderRequest(customerEmail, orderItemRequests));
+            if (!outcome.isAccepted()) {
+                throw outcome.rejection();
+            }
+            return outcome.order();
+        }
+        return createAlone(customerEmail, orderItemRequests);
+    }
+
+    private Order createAlone(String customerEmail, List<OrderItemRequest> orderItemRequests) {
+        Map<String, Integer> quantitiesBySku = quantitiesBySku(orderItemRequests);
+
+        return retryExecutor.executeInTransaction("reserve", quantitiesBySku.keySet(),
+                () -> reserveAndSave(customerEmail, orderItemRequests, quantitiesBySku));
+    }
+
+    /**
+     * Creates several orders in one transaction: stock for all of them is reserved in one pass of
+     * the reservation engine, each order is accepted or rejected on its own, and the accepted
+     * orders are inserted together. Returns one outcome per request, in request order.
+     */
+    public List<OrderOutcome> createOrders(List<CreateOrderRequest> requests) {
+        List<Map<String, Integer>> quantitiesPerOrder = new ArrayList<>(requests.size());
+        Set<String> skus = new TreeSet<>();
+        for (CreateOrderRequest request : requests) {
+            Map<String, Integer> quantitiesBySku = quantitiesBySku(request.items());
+            quantitiesPerOrder.add(quantitiesBySku);
+            skus.addAll(quantitiesBySku.keySet());
+        }
+
+        return retryExecutor.executeInTransaction("reserve", skus,
+                () -> reserveAndSaveAll(requests, quantitiesPerOrder));
+    }
+
+    /** Commits a reservation event; a successful reservation is reported as {@code reserved}. */
+    private static void commit(StockReservationEvent event, long orderId, int orders, int lines, int rejected,
+                               Outcome outcome) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.orderId = orderId;
+            event.orders = orders;
+            event.lines = lines;
+            event.rejected = rejected;
+            event.outcome = outcome == Outcome.CREATED ? "reserved" : outcome.name().toLowerCase(Locale.ROOT);
+            event.commit();
+        }
+    }
+
+    private static Outcome outcome(RuntimeException failure) {
+        if (failure instanceof InsufficientStockException) {
+            return Outcome.INSUFFICIENT_STOCK;
+        }
+        if (failure instanceof ProductNotFoundException) {
+            return Outcome.PRODUCT_NOT_FOUND;
+        }
+        if (failure instanceof ConcurrencyFailureException) {
+            return Outcome.CONFLICT;
+        }
+        if (failure instanceof TaskRejectedException) {
+            return Outcome.REJECTED;
+        }
+        return Outcome.FAILED;
+    }
 
+    private static Map<String, Integer> quantitiesBySku(List<OrderItemRequest> orderItemRequests) {
+        Map<String, Integer> quantitiesBySku = new LinkedHashMap<>();
         for (OrderItemRequest orderItemRequest : orderItemRequests) {
-            Product product = productRepository.findBySku(orderItemRequest.sku())
-                    .orElseThrow(() ->
-                            new ProductNotFoundException("Product not found: " + orderItemRequest.sku()));
+            quantitiesBySku.merge(orderItemRequest.sku(), orderItemRequest.quantity(), Integer::sum);
+        }
+        return quantitiesBySku;
+    }
+
+    private Order reserveAndSave(String customerEmail, List<OrderItemRequest> orderItemRequests,
+                                 Map<String, Integer> quantitiesBySku) {
+        long phaseStart = createPhases.start();
+        StockReservationEvent reservation = new StockReservationEvent();
+        reservation.begin();
+        try {
+            reservationEngine.reserve(quantitiesBySku);
+        } catch (RuntimeException failure) {
+            commit(reservation, 0L, 1, quantitiesBySku.size(), 1, outcome(failure));
+            throw failure;
+        }
+        reservation.end();
+        phaseStart = createPhases.record(Phase.RESERVE, phaseStart);
+
+        long generation = orderVersions.generation();
+        Order createdOrder = orderRepository.save(reservedOrder(customerEmail, orderItemRequests, Instant.now()));
+        commit(reservation, createdOrder.getId(), 1, quantitiesBySku.size(), 0, Outcome.CREATED);
+        phaseStart = createPhases.record(Phase.SAVE, phaseStart);
+        created(createdOrder, generation);
+        createPhases.record(Phase.DISPATCH, phaseStart);
+        timeCommit(createPhases);
+        return createdOrder;
+    }
+
+    private List<OrderOutcome> reserveAndSaveAll(List<CreateOrderRequest> requests,
+                                                 List<Map<String, Integer>> quantitiesPerOrder) {
+        long phaseStart = batchPhases.start();
+        int lines = quantitiesPerOrder.stream().mapToInt(Map::size).sum();
+        StockReservationEvent reservation = new StockReservationEvent();
+        reservation.begin();
+        List<RuntimeException> rejections;
+        try {
+            rejections = reservationEngine.reserveEach(quantitiesPerOrder);
+        } catch (RuntimeException failure) {
+            commit(reservation, 0L, requests.size(), lines, requests.size(), outcome(failure));
+            throw failure;
+        }
+        int rejected = (int) rejections.stream().filter(Objects::nonNull).count();
+        commit(reservation, 0L, requests.size(), lines, rejected, Outcome.CREATED);
+        phaseStart = batchPhases.record(Phase.RESERVE, phaseStart);
 
-            if (product.getAvailableQuantity() < orderItemRequest.quantity()) {
-                throw new InsufficientStockException(product.getSku());
+        List<Order> accepted = new ArrayList<>(requests.size());
+        Instant reservedAt = Instant.now();
+        for (int i = 0; i < requests.size(); i++) {
+            if (rejections.get(i) == null) {
+                accepted.add(reservedOrder(requests.get(i).customerEmail(), requests.get(i).items(), reservedAt));
             }
+        }
 
-            product.setAvailableQuantity(product.getAvailableQuantity() - orderItemRequest.quantity());
-            productRepository.save(product);
+        long generation = orderVersions.generation();
+        Iterator<Order> createdOrders = orderRepository.saveAll(accepted).iterator();
+        phaseStart = batchPhases.record(Phase.SAVE, phaseStart);
+        List<OrderOutcome> outcomes = new ArrayList<>(requests.size());
+        for (RuntimeException rejection : rejections) {
+            if (rejection == null) {
+                Order createdOrder = createdOrders.next();
+                created(createdOrder, generation);
+                outcomes.add(OrderOutcome.accepted(createdOrder));
+            } else {
+                outcomes.add(OrderOutcome.rejected(rejection));
+            }
+        }
+        batchPhases.record(Phase.DISPATCH, phaseStart);
+        timeCommit(batchPhases);
+        return outcomes;
+    }
 
+    /**
+     * Times the commit of the current transaction, from the first {@code beforeCommit} callback,
+     * which precedes Hibernate's flush, to the first {@code afterCommit} callback.
+     */
+    private static void timeCommit(EnumTimers<Phase> phases) {
+        if (!phases.enabled() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+
+            @Override
+            public int getOrder() {
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = phases.start();
+            }
+
+            @Override
+            public void afterCommit() {
+                phases.record(Phase.COMMIT, commitStart);
+            }
+        });
+    }
+
+    private static Order reservedOrder(String customerEmail, List<OrderItemRequest> orderItemRequests,
+                                       Instant reservedAt) {
+        Order order = new Order();
+        order.setCustomerEmail(customerEmail);
+
+        List<OrderItem> orderItems = new ArrayList<>();
+
+        for (OrderItemRequest orderItemRequest : orderItemRequests) {
             OrderItem orderItem = new OrderItem();
             orderItem.setSku(orderItemRequest.sku());
             orderItem.setQuantity(orderItemRequest.quantity());
@@ -57,23 +335,56 @@ public class OrderService {
 
         order.setItems(orderItems);
         order.setStatus(OrderStatus.RESERVED);
-        Order createdOrder = orderRepository.save(order);
+        order.setReservedAt(reservedAt);
+        return order;
+    }
 
+    private void created(Order createdOrder, long generation) {
+        statusCounters.created(OrderStatus.RESERVED);
+        orderVersions.record(createdOrder.getId(), OrderStatus.RESERVED, generation);
         fulfilmentService.processFulfilment(createdOrder.getId());
-
-        return createdOrder;
     }
 
+    /**
+     * Concurrent reads of the same order share one query; the returned order may therefore be
+     * handed to other callers as well and must not be modified.
+     */
     public Order getOrder(Long id) {
-        return orderRepository.findById(id)
-                .orElseThrow(() -> new OrderNotFoundException(id));
+        return orderLoads.execute(id, () -> {
+            long generation = orderVersions.generation();
+            Optional<Order> order = orderRepository.findWithItemsById(id);
+            order.ifPresent(found -> orderVersions.record(found.getId(), found.getStatus(), generation));
+            return order;
+        }).orElseThrow(() -> new OrderNotFoundException(id));
+    }
+
+    /**
+     * Returns the current status of an order if it is known without a database read, or
+     * {@code null}.
+     */
+    public OrderStatus knownStatus(Long id) {
+        return orderVersions.status(id);
+    }
+
+    /**
+     * Returns up to {@code limit} orders with an id greater than {@code after}, in id order, optionally
+     * restricted to one status. Pass the last id of a page as {@code after} to get the next one.
+     */
+    public List<Order> getOrdersPage(OrderStatus status, Long after, int limit) {
+        long cursor = after == null ? 0L : after;
+        return status == null
+                ? orderRepository.findByIdGreaterThanOrderByIdAsc(cursor, Limit.of(limit))
+                : orderRepository.findByStatusAndIdGreaterThanOrderByIdAsc(status, cursor, Limit.of(limit));
     }
 
-    public List<Order> getOrdersByStatus(OrderStatus status) {
-        return orderRepository.findByStatus(status);
+    public Map<OrderStatus, Long> getOrderCountsByStatus() {
+        return statusCounters.snapshot();
     }
 
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * Hands every matching order to {@code consumer} in id order without loading the whole result.
+     */
+    public void streamOrders(OrderStatus status, Consumer<Order> consumer) {
+        orderStreamRepository.forEach(status, consumer);
     }
 }
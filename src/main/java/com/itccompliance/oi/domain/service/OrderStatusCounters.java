@@ -0,0 +1,72 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.domain.concurrency.AfterCommit;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Number of orders in each {@link OrderStatus}, kept in memory so it can be read in O(1).
+ * <p>
+ * The counts are rebuilt from the {@code orders} table at startup and then moved by every status
+ * change the application makes. Changes made inside a transaction are applied once it commits, so
+ * a rolled-back or retried order is never counted. Published as the {@code oi.orders} gauge,
+ * tagged by {@code status}.
+ */
+@Component
+public class OrderStatusCounters {
+
+    private final OrderRepository orderRepository;
+    private final Map<OrderStatus, AtomicLong> counts = new EnumMap<>(OrderStatus.class);
+
+    public OrderStatusCounters(OrderRepository orderRepository, MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            counts.put(status, count);
+            Gauge.builder("oi.orders", count, AtomicLong::get)
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        counts.values().forEach(count -> count.set(0));
+        orderRepository.countByStatus().forEach(row -> counts.get(row.getStatus()).set(row.getCount()));
+    }
+
+    /** Counts a new order in {@code status}. */
+    public void created(OrderStatus status) {
+        AfterCommit.run(() -> counts.get(status).incrementAndGet());
+    }
+
+    /** Moves {@code orders} orders from one status to another. */
+    public void transitioned(OrderStatus from, OrderStatus to, int orders) {
+        if (orders == 0) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            counts.get(from).addAndGet(-orders);
+            counts.get(to).addAndGet(orders);
+        });
+    }
+
+    public long count(OrderStatus status) {
+        return counts.get(status).get();
+    }
+
+    /** Snapshot of every status, including those with no orders. */
+    public Map<OrderStatus, Long> snapshot() {
+        Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+        counts.forEach((status, count) -> snapshot.put(status, count.get()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,64 @@
+package com.itccompliance.oi.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itccompliance.oi.config.OrderVersionsProperties;
+import com.itccompliance.oi.domain.concurrency.AfterCommit;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last committed status of recently created or read orders, so a client that already holds the
+ * current representation of an order can be answered without loading it.
+ * <p>
+ * An order's representation only changes with its status, which makes the status a version. The
+ * map is bounded and only ever holds statuses that are known to be current: every status change
+ * removes the affected orders, and a status recorded by a read that raced with such a removal is
+ * dropped again.
+ */
+@Component
+public class OrderVersions {
+
+    private final Cache<Long, OrderStatus> statuses;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public OrderVersions(OrderVersionsProperties properties) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .build();
+    }
+
+    /** Returns the known current status of an order, or {@code null} if it is not known. */
+    public OrderStatus status(Long id) {
+        return statuses.getIfPresent(id);
+    }
+
+    /** Marks the start of a read whose result is later passed to {@link #record}. */
+    public long generation() {
+        return invalidations.get();
+    }
+
+    /**
+     * Remembers the status of an order read or written at {@code generation}. Inside a transaction
+     * it is only remembered once the transaction has committed.
+     */
+    public void record(Long id, OrderStatus status, long generation) {
+        AfterCommit.run(() -> put(id, status, generation));
+    }
+
+    /** Forgets orders whose status has changed; call once the change has been committed. */
+    public void invalidate(Collection<Long> ids) {
+        invalidations.incrementAndGet();
+        statuses.invalidateAll(ids);
+    }
+
+    private void put(Long id, OrderStatus status, long generation) {
+        statuses.put(id, status);
+        if (invalidations.get() != generation) {
+            statuses.invalidate(id);
+        }
+    }
+}
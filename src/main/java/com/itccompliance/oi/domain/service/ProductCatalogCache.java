@@ -0,0 +1,104 @@
+package com.itccompliance.oi.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itccompliance.oi.config.ProductCacheProperties;
+import com.itccompliance.oi.domain.concurrency.SingleFlight;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of product catalog data by SKU, bounded by size and time to live.
+ * <p>
+ * Only the slowly changing part of a product is cached. Stock moves with every reservation and is
+ * read from the reservation engine or {@code StockLevelIndex} instead, so reservations never have
+ * to touch this cache. Hits, misses, evictions and size are published as the {@code cache.*}
+ * meters tagged {@code cache=products}.
+ * <p>
+ * Concurrent misses for the same SKU share one database load through a {@link SingleFlight}
+ * named {@code products}.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final ProductRepository productRepository;
+    private final Cache<String, CatalogEntry> cache;
+    private final SingleFlight<String, CatalogEntry> loads;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ProductCatalogCache(ProductRepository productRepository, ProductCacheProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.maximumSize())
+                .expireAfterWrite(properties.timeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+        this.loads = new SingleFlight<>("products", meterRegistry);
+    }
+
+    /**
+     * Returns the catalog data of a SKU, loading it on a miss, or {@code null} if there is no such
+     * product. Unknown SKUs are not cached.
+     */
+    public CatalogEntry get(String sku) {
+        CatalogEntry cached = cache.getIfPresent(sku);
+        if (cached != null) {
+            return cached;
+        }
+        return loads.execute(sku, () -> load(sku));
+    }
+
+    public void put(Product product) {
+        cache.put(product.getSku(), CatalogEntry.of(product));
+    }
+
+    public void invalidate(String sku) {
+        invalidations.incrementAndGet();
+        cache.invalidate(sku);
+    }
+
+    private CatalogEntry load(String sku) {
+        long invalidationsBefore = invalidations.get();
+        CatalogEntry entry = productRepository.findBySku(sku).map(CatalogEntry::of).orElse(null);
+        if (entry != null) {
+            cache.put(sku, entry);
+            // an invalidation that raced with the load may have been overtaken by this put
+            if (invalidations.get() != invalidationsBefore) {
+                cache.invalidate(sku);
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * The cached part of a {@link Product}. {@code version} only moves with catalog changes, which
+     * invalidate the entry; stock writers such as {@code StockLedger} leave it alone.
+     */
+    public record CatalogEntry(Long id, String sku, String name, BigDecimal price, Long version) {
+
+        static CatalogEntry of(Product product) {
+            return new CatalogEntry(product.getId(), product.getSku(), product.getName(), product.getPrice(),
+                    product.getVersion());
+        }
+
+        /** A detached product carrying this catalog data and the given stock. */
+        public Product toProduct(int availableQuantity) {
+            Product product = new Product();
+            product.setId(id);
+            product.setSku(sku);
+            product.setName(name);
+            product.setPrice(price);
+            product.setVersion(version);
+            product.setAvailableQuantity(availableQuantity);
+            return product;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.itccompliance.oi.domain.service;
+
+/**
+ * Receives the outcome of a bulk product import while it runs.
+ */
+public interface ProductImportListener {
+
+    void rejected(ProductImportRow row, String reason);
+
+    /** Called every {@code progressInterval} rows with the totals so far. */
+    void progress(ProductImportResult soFar);
+}
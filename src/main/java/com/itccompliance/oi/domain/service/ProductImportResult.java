@@ -0,0 +1,10 @@
+package com.itccompliance.oi.domain.service;
+
+/**
+ * Totals of a bulk product import.
+ *
+ * @param rows     rows read so far
+ * @param imported rows inserted and committed
+ * @param rejected rows skipped because they were invalid, duplicates or failed to insert
+ */
+public record ProductImportResult(long rows, long imported, long rejected) {}
@@ -0,0 +1,22 @@
+package com.itccompliance.oi.domain.service;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a bulk product import, or the reason it could not be parsed.
+ *
+ * @param line  1-based position of the row in the imported document
+ * @param error why the row is invalid, {@code null} for a valid row
+ */
+public record ProductImportRow(long line, String sku, String name, BigDecimal price, int availableQuantity,
+                               String error) {
+
+    public static ProductImportRow valid(long line, String sku, String name, BigDecimal price,
+                                         int availableQuantity) {
+        return new ProductImportRow(line, sku, name, price, availableQuantity, null);
+    }
+
+    public static ProductImportRow invalid(long line, String sku, String error) {
+        return new ProductImportRow(line, sku, null, null, 0, error);
+    }
+}
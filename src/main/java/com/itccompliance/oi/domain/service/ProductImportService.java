@@ -0,0 +1,136 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.ProductImportProperties;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
+import com.itccompliance.oi.persistence.ProductBulkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports products from a stream of rows without holding more than one batch in memory.
+ * <p>
+ * Existing SKUs are read once up front; duplicates against them or earlier rows of the same
+ * import are rejected without a query. Valid rows are inserted in JDBC batches, one transaction
+ * per batch. A batch that hits a constraint, e.g. a SKU created concurrently through the API, is
+ * retried row by row so only the offending rows are rejected. Invalid rows never abort the import.
+ * <p>
+ * Rows are counted in {@code oi.products.import.rows}, tagged by {@code outcome}.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private final ProductBulkRepository bulkRepository;
+    private final StockLevelIndex stockLevelIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int progressInterval;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public ProductImportService(ProductBulkRepository bulkRepository, StockLevelIndex stockLevelIndex,
+                                PlatformTransactionManager transactionManager, ProductImportProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.bulkRepository = bulkRepository;
+        this.stockLevelIndex = stockLevelIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = properties.batchSize();
+        this.progressInterval = properties.progressInterval();
+        this.importedRows = Counter.builder("oi.products.import.rows").tag("outcome", "imported")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("oi.products.import.rows").tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    public ProductImportResult importProducts(Iterator<ProductImportRow> rows, ProductImportListener listener) {
+        Import run = new Import(bulkRepository.findAllSkus(), listener);
+        while (rows.hasNext()) {
+            run.accept(rows.next());
+        }
+        run.flush();
+        ProductImportResult result = run.result();
+        log.info("Product import finished: {} rows, {} imported, {} rejected",
+                result.rows(), result.imported(), result.rejected());
+        return result;
+    }
+
+    private final class Import {
+        private final Set<String> knownSkus;
+        private final ProductImportListener listener;
+        private final List<ProductImportRow> batch = new ArrayList<>(batchSize);
+        private long rows;
+        private long imported;
+        private long rejected;
+
+        private Import(Set<String> knownSkus, ProductImportListener listener) {
+            this.knownSkus = knownSkus;
+            this.listener = listener;
+        }
+
+        private void accept(ProductImportRow row) {
+            rows++;
+            if (row.error() != null) {
+                reject(row, row.error());
+            } else if (!knownSkus.add(row.sku())) {
+                reject(row, "Product with SKU '" + row.sku() + "' already exists");
+            } else {
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+            if (rows % progressInterval == 0) {
+                listener.progress(result());
+            }
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> bulkRepository.insertAll(batch));
+                batch.forEach(this::imported);
+            } catch (DataIntegrityViolationException conflict) {
+                for (ProductImportRow row : batch) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> bulkRepository.insertAll(List.of(row)));
+                        imported(row);
+                    } catch (DataIntegrityViolationException rowConflict) {
+                        reject(row, "Product with SKU '" + row.sku() + "' could not be inserted");
+                    }
+                }
+            }
+            batch.clear();
+        }
+
+        private void imported(ProductImportRow row) {
+            imported++;
+            importedRows.increment();
+            int quantity = row.availableQuantity();
+            stockLevelIndex.update(row.sku(), () -> quantity);
+        }
+
+        private void reject(ProductImportRow row, String reason) {
+            rejected++;
+            rejectedRows.increment();
+            listener.rejected(row, reason);
+        }
+
+        private ProductImportResult result() {
+            return new ProductImportResult(rows, imported, rejected);
+        }
+    }
+}
@@ -2,22 +2,40 @@ package com.itccompliance.oi.domain.service;
 
 import com.itccompliance.oi.api.dto.UpdateProductRequest;
 import com.itccompliance.oi.api.mapper.ProductMapper;
+import com.itccompliance.oi.domain.concurrency.AfterCommit;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryExecutor;
 import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
+import com.itccompliance.oi.domain.inventory.StockReservationEngine;
 import com.itccompliance.oi.domain.model.Product;
 import com.itccompliance.oi.persistence.ProductRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final StockReservationEngine reservationEngine;
+    private final ConflictRetryExecutor retryExecutor;
+    private final StockLevelIndex stockLevelIndex;
+    private final ProductCatalogCache catalogCache;
 
-    public ProductService(ProductRepository productRepository, ProductMapper productMapper) {
+    public ProductService(ProductRepository productRepository, ProductMapper productMapper,
+                          StockReservationEngine reservationEngine, ConflictRetryExecutor retryExecutor,
+                          StockLevelIndex stockLevelIndex, ProductCatalogCache catalogCache) {
         this.productRepository = productRepository;
         this.productMapper = productMapper;
+        this.reservationEngine = reservationEngine;
+        this.retryExecutor = retryExecutor;
+        this.stockLevelIndex = stockLevelIndex;
+        this.catalogCache = catalogCache;
     }
 
     @Transactional
@@ -29,22 +47,76 @@ public class ProductService {
                     );
                 });
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        int quantity = saved.getAvailableQuantity();
+        AfterCommit.run(() -> {
+            stockLevelIndex.update(saved.getSku(), () -> quantity);
+            catalogCache.put(saved);
+        });
+        return saved;
     }
 
+    /**
+     * Combines cached catalog data with the current stock. Falls back to the {@code products} row
+     * only for a SKU whose stock is neither tracked by the reservation engine nor indexed.
+     */
     public Product getBySku(String sku) {
-        return productRepository.findBySku(sku)
-                .orElseThrow(() -> new ProductNotFoundException(sku));
+        ProductCatalogCache.CatalogEntry entry = catalogCache.get(sku);
+        if (entry == null) {
+            throw new ProductNotFoundException(sku);
+        }
+
+        Integer quantity = reservationEngine.trackedQuantity(sku);
+        if (quantity == null) {
+            quantity = stockLevelIndex.quantity(sku);
+        }
+        if (quantity == null) {
+            return productRepository.findBySku(sku)
+                    .orElseThrow(() -> new ProductNotFoundException(sku));
+        }
+        return entry.toProduct(quantity);
     }
 
+    /**
+     * Products with at most {@code threshold} units available, lowest quantity first. The matching
+     * SKUs come from {@link StockLevelIndex}, so only those rows are loaded.
+     */
     public List<Product> findProductsBelowStockThreshold(int threshold) {
-        return productRepository.findByAvailableQuantityLessThanEqual(threshold);
+        List<String> skus = stockLevelIndex.skusAtOrBelow(threshold);
+        if (skus.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Integer> rank = new HashMap<>();
+        for (int i = 0; i < skus.size(); i++) {
+            rank.put(skus.get(i), i);
+        }
+        List<Product> products = new ArrayList<>(productRepository.findBySkuIn(skus));
+        for (Product product : products) {
+            Integer liveQuantity = reservationEngine.trackedQuantity(product.getSku());
+            if (liveQuantity != null) {
+                product.setAvailableQuantity(liveQuantity);
+            }
+        }
+        products.sort(Comparator.comparing(product -> rank.get(product.getSku())));
+        return products;
     }
 
-    @Transactional
     public Product updateProduct(String sku, UpdateProductRequest updateRequest) {
-        Product product = getBySku(sku);
-        productMapper.applyUpdateToProduct(updateRequest, product);
-        return productRepository.save(product);
+        return retryExecutor.executeInTransaction("update", List.of(sku), () -> {
+            Product product = productRepository.findBySku(sku)
+                    .orElseThrow(() -> new ProductNotFoundException(sku));
+            Integer liveQuantity = reservationEngine.trackedQuantity(sku);
+            if (liveQuantity != null) {
+                product.setAvailableQuantity(liveQuantity);
+            }
+            productMapper.applyUpdateToProduct(updateRequest, product);
+            if (updateRequest.availableQuantity() != null) {
+                reservationEngine.restock(sku, updateRequest.availableQuantity());
+            }
+            Product saved = productRepository.save(product);
+            AfterCommit.run(() -> catalogCache.invalidate(sku));
+            return saved;
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.FulfilmentOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+
+public interface FulfilmentOutboxRepository extends JpaRepository<FulfilmentOutboxEntry, Long> {
+    @Modifying
+    @Query("delete from FulfilmentOutboxEntry e where e.orderId in :orderIds")
+    int deleteByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Query("update FulfilmentOutboxEntry e set e.claimedUntil = null where e.id in :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,39 @@
+package com.itccompliance.oi.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hands out ids from a database sequence in blocks, the way Hibernate's {@code pooled-lo} optimizer
+ * does for the entities: each sequence value {@code lo} reserves {@code lo .. lo + blockSize - 1}
+ * for this node. Code that inserts with plain JDBC takes its ids from here, so its rows never
+ * collide with rows inserted through JPA, on this node or any other.
+ */
+public class IdBlockAllocator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextValueSql;
+    private final int blockSize;
+    private long nextId = 1;
+    private long endId = 1;
+
+    /**
+     * @param blockSize must match the {@code allocationSize} of the sequence's entity generator
+     */
+    public IdBlockAllocator(JdbcTemplate jdbcTemplate, String sequence, int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextValueSql = "SELECT NEXT VALUE FOR " + sequence;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized long[] next(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (nextId == endId) {
+                nextId = jdbcTemplate.queryForObject(nextValueSql, Long.class);
+                endId = nextId + blockSize;
+            }
+            ids[i] = nextId++;
+        }
+        return ids;
+    }
+}
@@ -2,9 +2,50 @@ package com.itccompliance.oi.persistence;
 
 import com.itccompliance.oi.domain.model.Order;
 import com.itccompliance.oi.domain.model.OrderStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByStatus(OrderStatus status);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+    List<Order> findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus status, Long after, Limit limit);
+
+    @Query("select o.status as status, count(o) as count from Order o group by o.status")
+    List<StatusCount> countByStatus();
+
+    /** Moves the {@code RESERVED} orders among {@code ids} to {@code FULFILLED}, stamped {@code fulfilledAt}. */
+    @Modifying
+    @Query("update Order o set o.status = com.itccompliance.oi.domain.model.OrderStatus.FULFILLED,"
+            + " o.fulfilledAt = :fulfilledAt"
+            + " where o.id in :ids and o.status = com.itccompliance.oi.domain.model.OrderStatus.RESERVED")
+    int markFulfilled(@Param("ids") Collection<Long> ids, @Param("fulfilledAt") Instant fulfilledAt);
+
+    @Query("select o.id as id, o.reservedAt as reservedAt from Order o where o.id in :ids and o.status = :status")
+    List<ReservedOrder> findReservedByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status);
+
+    @Query("select o.reservedAt from Order o where o.status = :status and o.reservedAt is not null order by o.reservedAt")
+    List<Instant> findReservedAtByStatusOrderByReservedAt(@Param("status") OrderStatus status, Limit limit);
+
+    interface ReservedOrder {
+        Long getId();
+        Instant getReservedAt();
+    }
+
+    interface StatusCount {
+        OrderStatus getStatus();
+        long getCount();
+    }
+}
@@ -0,0 +1,94 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Reads orders with their items through a single forward-only JDBC cursor, handing each order to
+ * the caller as soon as its last item row has been read. Only one order is held at a time, so
+ * memory use does not grow with the size of the result. The orders are plain objects, not
+ * attached to any persistence context.
+ */
+@Repository
+public class OrderStreamRepository {
+
+    private static final String SELECT_SQL = "SELECT o.id, o.customer_email, o.status, i.id AS item_id, i.sku, i.quantity"
+            + " FROM orders o LEFT JOIN order_items i ON i.order_id = o.id";
+    private static final String ORDER_BY_SQL = " ORDER BY o.id, i.id";
+
+    private static final int FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OrderStreamRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Streams every order, or every order in {@code status} when it is not null, in id order.
+     */
+    public void forEach(OrderStatus status, Consumer<Order> consumer) {
+        String sql = status == null ? SELECT_SQL + ORDER_BY_SQL : SELECT_SQL + " WHERE o.status = ?" + ORDER_BY_SQL;
+        OrderAssembler assembler = new OrderAssembler(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            if (status != null) {
+                statement.setString(1, status.name());
+            }
+            return statement;
+        }, assembler);
+        assembler.finish();
+    }
+
+    /** Groups consecutive item rows of the same order back into one {@link Order}. */
+    private static final class OrderAssembler implements RowCallbackHandler {
+        private final Consumer<Order> consumer;
+        private Order current;
+
+        private OrderAssembler(Consumer<Order> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long orderId = rs.getLong("id");
+            if (current == null || current.getId() != orderId) {
+                finish();
+                current = new Order();
+                current.setId(orderId);
+                current.setCustomerEmail(rs.getString("customer_email"));
+                current.setStatus(OrderStatus.valueOf(rs.getString("status")));
+                current.setItems(new ArrayList<>());
+            }
+
+            long itemId = rs.getLong("item_id");
+            if (!rs.wasNull()) {
+                OrderItem item = new OrderItem();
+                item.setId(itemId);
+                item.setSku(rs.getString("sku"));
+                item.setQuantity(rs.getInt("quantity"));
+                item.setOrder(current);
+                current.getItems().add(item);
+            }
+        }
+
+        private void finish() {
+            if (current != null) {
+                consumer.accept(current);
+                current = null;
+            }
+        }
+    }
+}
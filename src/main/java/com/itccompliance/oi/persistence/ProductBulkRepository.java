@@ -0,0 +1,63 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plain JDBC access for bulk product imports: one pass over the existing SKUs and batched inserts
+ * that bypass the persistence context.
+ * <p>
+ * Ids are taken from {@code products_seq} through an {@link IdBlockAllocator}, so imported rows
+ * never collide with products created through JPA.
+ */
+@Repository
+public class ProductBulkRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO products (id, sku, name, price, available_quantity, version)"
+            + " VALUES (?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdBlockAllocator ids;
+
+    public ProductBulkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ids = new IdBlockAllocator(jdbcTemplate, "products_seq", Product.ID_BLOCK_SIZE);
+    }
+
+    public Set<String> findAllSkus() {
+        Set<String> skus = new HashSet<>();
+        jdbcTemplate.query("SELECT sku FROM products", rs -> {
+            skus.add(rs.getString(1));
+        });
+        return skus;
+    }
+
+    public void insertAll(List<ProductImportRow> rows) {
+        long[] rowIds = ids.next(rows.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement statement, int i) throws SQLException {
+                ProductImportRow row = rows.get(i);
+                statement.setLong(1, rowIds[i]);
+                statement.setString(2, row.sku());
+                statement.setString(3, row.name());
+                statement.setBigDecimal(4, row.price());
+                statement.setInt(5, row.availableQuantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return rows.size();
+            }
+        });
+    }
+}
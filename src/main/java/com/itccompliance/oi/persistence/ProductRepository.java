@@ -1,13 +1,20 @@
 package com.itccompliance.oi.persistence;
 
 import com.itccompliance.oi.domain.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findBySku(String sku);
-    List<Product> findByAvailableQuantityLessThanEqual(int threshold);
+    List<Product> findBySkuIn(Collection<String> skus);
+
+    /** Locks the rows in SKU order, so concurrent callers cannot deadlock on them. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Product> findBySkuInOrderBySkuAsc(Collection<String> skus);
 }
 
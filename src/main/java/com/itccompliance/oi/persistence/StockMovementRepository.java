@@ -0,0 +1,7 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+}
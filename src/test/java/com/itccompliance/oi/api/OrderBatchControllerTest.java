@@ -0,0 +1,112 @@
+package com.itccompliance.oi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itccompliance.oi.domain.service.ProductService;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.support.SqlStatementCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.StringJoiner;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.itccompliance.oi.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+class OrderBatchControllerTest {
+
+    private static final int ORDERS = 40;
+
+    /**
+     * one query seeding the SKUs and one insert batch each for orders, items and outbox entries,
+     * not counting the sequence calls that allocate ids
+     */
+    private static final int BATCH_BUDGET = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void createOrders_ReturnsAResultPerOrder() throws Exception {
+        productService.create(createProduct("BATCH-A", 5));
+
+        String body = """
+                {"orders":[
+                  {"customerEmail":"first@example.com","items":[{"sku":"BATCH-A","quantity":3}]},
+                  {"customerEmail":"second@example.com","items":[{"sku":"BATCH-A","quantity":3}]},
+                  {"customerEmail":"third@example.com","items":[{"sku":"BATCH-MISSING","quantity":1}]},
+                  {"customerEmail":"not-an-email","items":[{"sku":"BATCH-A","quantity":1}]},
+                  {"customerEmail":"fifth@example.com","items":[{"sku":"BATCH-A","quantity":2}]}
+                ]}
+                """;
+
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].order.status").value("RESERVED"))
+                .andExpect(jsonPath("$.results[1].status").value(409))
+                .andExpect(jsonPath("$.results[1].error").value("Conflict"))
+                .andExpect(jsonPath("$.results[2].status").value(404))
+                .andExpect(jsonPath("$.results[3].status").value(400))
+                .andExpect(jsonPath("$.results[3].message").value("customerEmail: must be a well-formed email address"))
+                .andExpect(jsonPath("$.results[4].status").value(201))
+                .andExpect(jsonPath("$.results[4].index").value(4));
+
+        assertThat(productService.getBySku("BATCH-A").getAvailableQuantity()).isZero();
+    }
+
+    @Test
+    void createOrders_RejectsEmptyBatch() throws Exception {
+        mockMvc.perform(post("/orders/batch").contentType(MediaType.APPLICATION_JSON).content("{\"orders\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createOrders_SharesStatementsAcrossTheBatch() throws Exception {
+        productService.create(createProduct("BATCH-B", 1000));
+        productService.create(createProduct("BATCH-C", 1000));
+        StringJoiner orders = new StringJoiner(",", "{\"orders\":[", "]}");
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add("{\"customerEmail\":\"batch" + i + "@example.com\",\"items\":["
+                    + "{\"sku\":\"BATCH-B\",\"quantity\":1},{\"sku\":\"BATCH-C\",\"quantity\":1}]}");
+        }
+        long ordersBefore = orderRepository.count();
+
+        SqlStatementCounter.reset();
+        SqlStatementCounter.resetAll();
+        String response = mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(orders.toString()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long statements = SqlStatementCounter.count() - SqlStatementCounter.countAll("next value for");
+
+        JsonNode result = objectMapper.readTree(response);
+        assertThat(result.get("accepted").asInt()).isEqualTo(ORDERS);
+        assertThat(orderRepository.count()).isEqualTo(ordersBefore + ORDERS);
+        assertThat(statements).isLessThanOrEqualTo(BATCH_BUDGET);
+    }
+}
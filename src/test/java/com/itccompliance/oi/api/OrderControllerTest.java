@@ -16,13 +16,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,7 +49,8 @@ class OrderControllerTest {
     @InjectMocks
     private OrderController orderController;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
@@ -119,6 +127,24 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Insufficient stock for: SKU001"));
     }
 
+    @Test
+    void createOrder_FulfilmentAtCapacity_Returns503() throws Exception {
+        CreateOrderRequest request = new CreateOrderRequest(
+                "test@example.com",
+                List.of(new OrderItemRequest("SKU001", 1))
+        );
+
+        when(orderService.createOrder(eq("test@example.com"), any()))
+                .thenThrow(new TaskRejectedException("oi.fulfilment.executor is at capacity, try again later"));
+
+        mockMvc.perform(post("/orders")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.error").value("Service Unavailable"));
+    }
+
     @Test
     void getOrder_Success() throws Exception {
         Order order = createTestOrder();
@@ -130,9 +156,48 @@ class OrderControllerTest {
 
         mockMvc.perform(get("/orders/100"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"100-RESERVED\""))
                 .andExpect(jsonPath("$.id").value(100));
     }
 
+    @Test
+    void getOrder_Returns304WithoutLoading_WhenKnownStatusMatchesETag() throws Exception {
+        when(orderService.knownStatus(100L)).thenReturn(OrderStatus.RESERVED);
+
+        mockMvc.perform(get("/orders/100").header("If-None-Match", "\"100-RESERVED\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"100-RESERVED\""));
+
+        verify(orderService, never()).getOrder(any());
+    }
+
+    @Test
+    void getOrder_ReturnsNewRepresentation_WhenStatusChangedSinceETag() throws Exception {
+        Order order = createTestOrder();
+        order.setStatus(OrderStatus.FULFILLED);
+        when(orderService.knownStatus(100L)).thenReturn(null);
+        when(orderService.getOrder(100L)).thenReturn(order);
+        when(orderMapper.toOrderResponse(order)).thenReturn(new OrderResponse(100L, "test@example.com",
+                OrderStatus.FULFILLED, List.of()));
+
+        mockMvc.perform(get("/orders/100").header("If-None-Match", "\"100-RESERVED\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"100-FULFILLED\""))
+                .andExpect(jsonPath("$.status").value("FULFILLED"));
+    }
+
+    @Test
+    void getOrder_Returns304AfterLoading_WhenStatusIsNotKnownInMemory() throws Exception {
+        Order order = createTestOrder();
+        when(orderService.knownStatus(100L)).thenReturn(null);
+        when(orderService.getOrder(100L)).thenReturn(order);
+        when(orderMapper.toOrderResponse(order)).thenReturn(new OrderResponse(100L, "test@example.com",
+                OrderStatus.RESERVED, List.of()));
+
+        mockMvc.perform(get("/orders/100").header("If-None-Match", "\"100-RESERVED\""))
+                .andExpect(status().isNotModified());
+    }
+
     @Test
     void getOrder_NotFound_Returns404() throws Exception {
         when(orderService.getOrder(999L))
@@ -150,13 +215,90 @@ class OrderControllerTest {
         OrderResponse response = new OrderResponse(100L, "test@example.com",
                 OrderStatus.RESERVED, List.of());
 
-        when(orderService.getOrdersByStatus(OrderStatus.RESERVED))
+        when(orderService.getOrdersPage(OrderStatus.RESERVED, null, 100))
                 .thenReturn(List.of(order));
         when(orderMapper.toOrderResponse(order)).thenReturn(response);
 
         mockMvc.perform(get("/orders")
                         .param("status", "RESERVED"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].status").value("RESERVED"));
+                .andExpect(jsonPath("$[0].status").value("RESERVED"))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void getOrders_FullPage_LinksToNextPage() throws Exception {
+        Order order = createTestOrder();
+        OrderResponse response = new OrderResponse(100L, "test@example.com",
+                OrderStatus.RESERVED, List.of());
+
+        when(orderService.getOrdersPage(OrderStatus.RESERVED, 50L, 1))
+                .thenReturn(List.of(order));
+        when(orderMapper.toOrderResponse(order)).thenReturn(response);
+
+        mockMvc.perform(get("/orders?status=RESERVED&after=50&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(100))
+                .andExpect(header().string("Link", containsString("after=100")))
+                .andExpect(header().string("Link", containsString("status=RESERVED")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")));
+    }
+
+    @Test
+    void getOrders_LimitOutOfRange_Returns400() throws Exception {
+        mockMvc.perform(get("/orders")
+                        .param("limit", "1001"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("limit must be between 1 and 1000"));
+
+        verifyNoInteractions(orderService);
+    }
+
+    @Test
+    void getOrders_Ndjson_StreamsOneOrderPerLine() throws Exception {
+        Order first = createTestOrder();
+        Order second = createTestOrder();
+        second.setId(101L);
+
+        doAnswer(invocation -> {
+            Consumer<Order> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(orderService).streamOrders(eq(OrderStatus.RESERVED), any());
+        when(orderMapper.toOrderResponse(first))
+                .thenReturn(new OrderResponse(100L, "test@example.com", OrderStatus.RESERVED, List.of()));
+        when(orderMapper.toOrderResponse(second))
+                .thenReturn(new OrderResponse(101L, "test@example.com", OrderStatus.RESERVED, List.of()));
+
+        MvcResult result = mockMvc.perform(get("/orders")
+                        .param("status", "RESERVED")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":100,\"customerEmail\":\"test@example.com\",\"status\":\"RESERVED\",\"items\":[]}\n"
+                                + "{\"id\":101,\"customerEmail\":\"test@example.com\",\"status\":\"RESERVED\",\"items\":[]}\n"));
+        verify(orderService, never()).getOrdersPage(any(), any(), anyInt());
+    }
+
+    @Test
+    void getOrderStats_ReturnsCountPerStatusAndTotal() throws Exception {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        counts.put(OrderStatus.NEW, 0L);
+        counts.put(OrderStatus.RESERVED, 3L);
+        counts.put(OrderStatus.FULFILLED, 7L);
+        when(orderService.getOrderCountsByStatus()).thenReturn(counts);
+
+        mockMvc.perform(get("/orders/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(10))
+                .andExpect(jsonPath("$.byStatus.RESERVED").value(3))
+                .andExpect(jsonPath("$.byStatus.FULFILLED").value(7))
+                .andExpect(jsonPath("$.byStatus.NEW").value(0));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.itccompliance.oi.api;
+
+import com.itccompliance.oi.domain.service.ProductService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Sends a burst of concurrent {@code POST /orders} with group commit enabled: the orders must share
+ * transactions, and each request must still get its own answer, including the ones that run out
+ * of stock.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "oi.orders.group-commit.enabled=true",
+        "oi.orders.group-commit.max-delay=5ms"
+})
+@AutoConfigureMockMvc
+class OrderGroupCommitTest {
+
+    private static final int REQUESTS = 100;
+    private static final int STOCK = 80;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void concurrentOrders_ShareCommitsAndGetTheirOwnStatus() throws Exception {
+        productService.create(createProduct("GROUP-SKU", STOCK));
+        DistributionSummary groups = meterRegistry.get("oi.group.commit.size").tag("name", "orders").summary();
+        long groupsBefore = groups.count();
+        long commitsBefore = batchCommits().count();
+
+        List<Integer> statuses = burst("""
+                {"customerEmail":"group@example.com","items":[{"sku":"GROUP-SKU","quantity":1}]}
+                """);
+
+        assertThat(statuses).filteredOn(status -> status == 201).hasSize(STOCK);
+        assertThat(statuses).filteredOn(status -> status == 409).hasSize(REQUESTS - STOCK);
+        assertThat(groups.count() - groupsBefore).isLessThan(REQUESTS);
+        assertThat(productService.getBySku("GROUP-SKU").getAvailableQuantity()).isZero();
+        assertThat(batchCommits().count() - commitsBefore).isEqualTo(groups.count() - groupsBefore);
+        assertThat(meterRegistry.get("oi.order.create").tag("outcome", "insufficient_stock").timer().count())
+                .isEqualTo(REQUESTS - STOCK);
+    }
+
+    private Timer batchCommits() {
+        return meterRegistry.get("oi.order.batch.phase").tag("phase", "commit").timer();
+    }
+
+    private List<Integer> burst(String body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON).content(body))
+                        .andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<Integer> response : responses) {
+            statuses.add(response.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return statuses;
+    }
+}
@@ -0,0 +1,96 @@
+package com.itccompliance.oi.api;
+
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.support.SqlStatementCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Fails when an order read path issues more SQL than its fixed budget, whatever the number of
+ * orders or items involved, so a lazy load per order cannot creep back in.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.itccompliance.oi.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+class OrderStatementBudgetTest {
+
+    private static final int ORDERS = 50;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    /** one query for the page of orders, one batch load for all of their items */
+    private static final int LIST_BUDGET = 2;
+    private static final int SINGLE_ORDER_BUDGET = 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Long firstOrderId;
+
+    @BeforeEach
+    void setUp() {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setCustomerEmail("budget" + i + "@example.com");
+            order.setStatus(OrderStatus.FULFILLED);
+            List<OrderItem> items = new ArrayList<>();
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                OrderItem item = new OrderItem();
+                item.setSku("SKU00" + j);
+                item.setQuantity(1);
+                item.setOrder(order);
+                items.add(item);
+            }
+            order.setItems(items);
+            orders.add(order);
+        }
+        firstOrderId = orderRepository.saveAll(orders).get(0).getId();
+    }
+
+    @Test
+    void getOrders_StaysWithinStatementBudget() throws Exception {
+        SqlStatementCounter.reset();
+
+        mockMvc.perform(get("/orders")
+                        .param("status", "FULFILLED")
+                        .param("after", String.valueOf(firstOrderId - 1))
+                        .param("limit", String.valueOf(ORDERS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ORDERS))
+                .andExpect(jsonPath("$[0].items.length()").value(ITEMS_PER_ORDER))
+                .andExpect(jsonPath("$[" + (ORDERS - 1) + "].items.length()").value(ITEMS_PER_ORDER));
+
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(LIST_BUDGET);
+    }
+
+    @Test
+    void getOrder_StaysWithinStatementBudget() throws Exception {
+        SqlStatementCounter.reset();
+
+        mockMvc.perform(get("/orders/" + firstOrderId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(ITEMS_PER_ORDER));
+
+        assertThat(SqlStatementCounter.count()).isLessThanOrEqualTo(SINGLE_ORDER_BUDGET);
+    }
+}
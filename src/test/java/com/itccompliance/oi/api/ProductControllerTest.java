@@ -99,11 +99,35 @@ class ProductControllerTest {
 
         mockMvc.perform(get("/products/TEST-SKU"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-null-50\""))
                 .andExpect(jsonPath("$.sku").value("TEST-SKU"));
 
         verify(productService).getBySku("TEST-SKU");
     }
 
+    @Test
+    void getProduct_Returns304_WhenETagMatches() throws Exception {
+        Product product = createTestProduct();
+        product.setVersion(3L);
+        when(productService.getBySku("TEST-SKU")).thenReturn(product);
+
+        mockMvc.perform(get("/products/TEST-SKU").header("If-None-Match", "\"1-3-50\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getProduct_Returns200_WhenStockMovedSinceETag() throws Exception {
+        Product product = createTestProduct();
+        product.setVersion(3L);
+        product.setAvailableQuantity(49);
+        when(productService.getBySku("TEST-SKU")).thenReturn(product);
+
+        mockMvc.perform(get("/products/TEST-SKU").header("If-None-Match", "\"1-3-50\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-3-49\""));
+    }
+
     @Test
     void getProduct_NotFound_Returns404() throws Exception {
         when(productService.getBySku("NOTFOUND"))
@@ -0,0 +1,97 @@
+package com.itccompliance.oi.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.service.ProductService;
+import com.itccompliance.oi.persistence.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "oi.product-import.batch-size=2",
+        "oi.product-import.progress-interval=3"
+})
+@AutoConfigureMockMvc
+class ProductImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void importCsv_InsertsValidRowsAndReportsEveryRejectedRow() throws Exception {
+        productService.create(createProduct("IMP-EXISTING", 1));
+
+        List<JsonNode> events = importBody(ProductImportController.CSV_VALUE, """
+                sku,name,price,availableQuantity
+                IMP-001,First,1.50,10
+                IMP-EXISTING,Clash,1.00,1
+                IMP-002,Second,2.50,0
+                IMP-001,Repeated,1.50,10
+                IMP-003,Third,-1,3
+                IMP-004,Fourth,4.00,4
+                """);
+
+        assertThat(events).filteredOn(event -> event.get("event").asText().equals("rejected"))
+                .extracting(event -> event.get("line").asLong())
+                .containsExactly(3L, 5L, 6L);
+        assertThat(events).filteredOn(event -> event.get("event").asText().equals("progress")).hasSize(2);
+        JsonNode completed = events.get(events.size() - 1);
+        assertThat(completed.get("event").asText()).isEqualTo("completed");
+        assertThat(completed.get("rows").asLong()).isEqualTo(6);
+        assertThat(completed.get("imported").asLong()).isEqualTo(3);
+        assertThat(completed.get("rejected").asLong()).isEqualTo(3);
+
+        assertThat(productRepository.findBySku("IMP-001")).get()
+                .extracting(Product::getName, Product::getAvailableQuantity)
+                .containsExactly("First", 10);
+        assertThat(productService.findProductsBelowStockThreshold(0)).extracting(Product::getSku)
+                .contains("IMP-002");
+    }
+
+    @Test
+    void importNdjson_LeavesRoomForProductsCreatedThroughJpa() throws Exception {
+        List<JsonNode> events = importBody(OrderController.NDJSON_VALUE, """
+                {"sku":"IMP-JSON-1","name":"Json one","price":3.00,"availableQuantity":3}
+                {"sku":"IMP-JSON-2","name":"Json two","price":4.00,"availableQuantity":4}
+                """);
+        Product created = productService.create(createProduct("IMP-AFTER", 1));
+
+        assertThat(events.get(events.size() - 1).get("imported").asLong()).isEqualTo(2);
+        assertThat(productRepository.findBySku("IMP-JSON-1")).isPresent();
+        assertThat(productRepository.findAll()).extracting(Product::getId).doesNotHaveDuplicates()
+                .contains(created.getId());
+    }
+
+    private List<JsonNode> importBody(String contentType, String body) throws Exception {
+        String response = mockMvc.perform(post("/products/import").contentType(contentType).content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,97 @@
+package com.itccompliance.oi.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itccompliance.oi.api.dto.CreateProductRequest;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductImportReaderTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    static void createValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void csv_SkipsHeaderAndBlankLinesAndUnquotesFields() {
+        List<ProductImportRow> rows = readCsv("""
+                sku,name,price,availableQuantity
+                SKU001,"Widget, large",19.99,5
+
+                SKU002,"The ""best"" gadget",5.00,0
+                """);
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0)).isEqualTo(ProductImportRow.valid(2, "SKU001", "Widget, large",
+                new BigDecimal("19.99"), 5));
+        assertThat(rows.get(1).line()).isEqualTo(4);
+        assertThat(rows.get(1).name()).isEqualTo("The \"best\" gadget");
+    }
+
+    @Test
+    void csv_TurnsBadLinesIntoInvalidRows() {
+        List<ProductImportRow> rows = readCsv("""
+                SKU001,Widget,19.99
+                SKU002,Widget,abc,1
+                SKU003,Widget,0.00,1
+                SKU004,"Widget,1.00,1
+                """);
+
+        assertThat(rows).extracting(ProductImportRow::error).containsExactly(
+                "Expected 4 columns but found 3",
+                "price and availableQuantity must be numbers",
+                "price: must be greater than or equal to 0.01",
+                "Unterminated quoted field");
+        assertThat(rows).extracting(ProductImportRow::sku).containsExactly("SKU001", "SKU002", "SKU003", null);
+    }
+
+    @Test
+    void ndjson_ParsesAndValidatesEachLine() {
+        List<ProductImportRow> rows = read(ProductImportReader.ndjson(reader("""
+                {"sku":"SKU001","name":"Widget","price":19.99,"availableQuantity":5}
+                {"sku":"","name":"Widget","price":19.99,"availableQuantity":5}
+                {"sku":"SKU003",
+                """), new ObjectMapper().readerFor(CreateProductRequest.class), validator));
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0).error()).isNull();
+        assertThat(rows.get(1).error()).isEqualTo("sku: must not be blank");
+        assertThat(rows.get(2).error()).startsWith("Malformed JSON");
+    }
+
+    private List<ProductImportRow> readCsv(String csv) {
+        return read(ProductImportReader.csv(reader(csv), validator));
+    }
+
+    private static BufferedReader reader(String text) {
+        return new BufferedReader(new StringReader(text));
+    }
+
+    private static List<ProductImportRow> read(ProductImportReader reader) {
+        List<ProductImportRow> rows = new ArrayList<>();
+        reader.forEachRemaining(rows::add);
+        return rows;
+    }
+}
@@ -0,0 +1,126 @@
+package com.itccompliance.oi.api;
+
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.domain.service.ProductCatalogCache;
+import com.itccompliance.oi.domain.service.ProductService;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.support.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Fires a burst of simultaneous reads for one key at a cold service and counts the queries that
+ * reach the database: every query must belong to a single-flight load, and every other request
+ * must have shared one of them or hit the cache.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.itccompliance.oi.support.SqlStatementCounter"
+})
+@AutoConfigureMockMvc
+class ThunderingHerdLoadTest {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void productHerd_IsServedByASingleFlightLoad() throws Exception {
+        productService.create(createProduct("HERD-SKU", 100));
+        catalogCache.invalidate("HERD-SKU");
+        double loadsBefore = counter("oi.singleflight.loads", "products");
+        SqlStatementCounter.resetAll();
+
+        List<Integer> statuses = burst("/products/HERD-SKU");
+
+        long queries = SqlStatementCounter.countAll("from products");
+        assertThat(statuses).hasSize(REQUESTS).containsOnly(200);
+        assertThat(queries).isEqualTo((long) (counter("oi.singleflight.loads", "products") - loadsBefore));
+        assertThat(queries).isLessThan(REQUESTS / 10);
+    }
+
+    @Test
+    void orderHerd_SharesOneQueryPerFlight() throws Exception {
+        Long orderId = orderRepository.save(createOrder()).getId();
+        double loadsBefore = counter("oi.singleflight.loads", "orders");
+        double coalescedBefore = counter("oi.singleflight.coalesced", "orders");
+        SqlStatementCounter.resetAll();
+
+        List<Integer> statuses = burst("/orders/" + orderId);
+
+        long queries = SqlStatementCounter.countAll("from orders");
+        double loads = counter("oi.singleflight.loads", "orders") - loadsBefore;
+        double coalesced = counter("oi.singleflight.coalesced", "orders") - coalescedBefore;
+        assertThat(statuses).hasSize(REQUESTS).containsOnly(200);
+        assertThat(queries).isEqualTo((long) loads);
+        assertThat(loads + coalesced).isEqualTo(REQUESTS);
+    }
+
+    private List<Integer> burst(String uri) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> responses = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            responses.add(executor.submit(() -> {
+                start.await();
+                return mockMvc.perform(get(uri)).andReturn().getResponse().getStatus();
+            }));
+        }
+        start.countDown();
+
+        List<Integer> statuses = new ArrayList<>();
+        for (Future<Integer> response : responses) {
+            statuses.add(response.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return statuses;
+    }
+
+    private double counter(String name, String flight) {
+        return meterRegistry.get(name).tag("name", flight).counter().count();
+    }
+
+
+    private static Order createOrder() {
+        Order order = new Order();
+        order.setCustomerEmail("herd@example.com");
+        order.setStatus(OrderStatus.FULFILLED);
+        OrderItem item = new OrderItem();
+        item.setSku("HERD-SKU");
+        item.setQuantity(1);
+        item.setOrder(order);
+        order.setItems(new ArrayList<>(List.of(item)));
+        return order;
+    }
+}
@@ -0,0 +1,76 @@
+package com.itccompliance.oi.async;
+
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.domain.service.FulfilmentService;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class FulfilmentConnectionUsageTest {
+
+    private static final int IN_FLIGHT = 2_000;
+    private static final long SAMPLE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(400);
+
+    @Autowired
+    private FulfilmentService fulfilmentService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void pendingFulfilments_ShouldNotHoldPooledConnections() throws Exception {
+        List<Long> orderIds = new ArrayList<>(IN_FLIGHT);
+        for (int i = 0; i < IN_FLIGHT; i++) {
+            Order order = new Order();
+            order.setCustomerEmail("pool" + i + "@example.com");
+            order.setStatus(OrderStatus.RESERVED);
+            order.setReservedAt(Instant.now());
+            order.setItems(List.of());
+            orderIds.add(orderRepository.save(order).getId());
+        }
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+
+        orderIds.forEach(fulfilmentService::processFulfilment);
+
+        // sample from the end of enqueueing across the poller's claims and the 100-300ms delays
+        int samples = 0;
+        int peakActive = 0;
+        int peakWaiting = 0;
+        long sampleFrom = System.nanoTime();
+        while (System.nanoTime() - sampleFrom < SAMPLE_WINDOW_NANOS) {
+            peakActive = Math.max(peakActive, pool.getActiveConnections());
+            peakWaiting = Math.max(peakWaiting, pool.getThreadsAwaitingConnection());
+            samples++;
+            Thread.sleep(1);
+        }
+
+        // the outbox poller and the batcher borrow one connection each; pending delays hold none
+        assertThat(samples).isPositive();
+        assertThat(peakActive).isLessThanOrEqualTo(2);
+        assertThat(peakWaiting).isZero();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (orderRepository.findByStatus(OrderStatus.FULFILLED).size() < IN_FLIGHT
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(orderRepository.findByStatus(OrderStatus.FULFILLED)).hasSize(IN_FLIGHT)
+                .allSatisfy(order -> assertThat(order.getFulfilledAt()).isAfter(order.getReservedAt()));
+    }
+}
@@ -114,19 +114,31 @@ class FulfilmentIT {
         assertThat(createdOrder.getStatus()).isEqualTo(OrderStatus.RESERVED);
 
         Long orderId = createdOrder.getId();
-
-        Thread.sleep(300);
-
-        ResponseEntity<Order> getResponse = restTemplate.getForEntity(
-                "/orders/" + orderId,
-                Order.class
-        );
+        String eTag = createResponse.getHeaders().getETag();
+        assertThat(eTag).isNotNull();
+
+        // poll conditionally: unchanged orders are answered with 304 and no body
+        HttpHeaders conditional = new HttpHeaders();
+        conditional.setIfNoneMatch(eTag);
+        ResponseEntity<Order> getResponse;
+        long deadline = System.currentTimeMillis() + 5_000;
+        do {
+            Thread.sleep(50);
+            getResponse = restTemplate.exchange(
+                    "/orders/" + orderId,
+                    HttpMethod.GET,
+                    new HttpEntity<>(conditional),
+                    Order.class
+            );
+        } while (getResponse.getStatusCode() == HttpStatus.NOT_MODIFIED && System.currentTimeMillis() < deadline);
 
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(getResponse.getHeaders().getETag()).isNotEqualTo(eTag);
         assertThat(getResponse.getBody()).isNotNull();
         assertThat(getResponse.getBody().getStatus()).isEqualTo(OrderStatus.FULFILLED);
 
-        Product updatedProduct = productRepository.findBySku("IT-SKU-001").orElseThrow();
+        // the products row only catches up at the next stock ledger checkpoint
+        Product updatedProduct = restTemplate.getForObject("/products/IT-SKU-001", Product.class);
         assertThat(updatedProduct.getAvailableQuantity()).isEqualTo(95);
     }
 
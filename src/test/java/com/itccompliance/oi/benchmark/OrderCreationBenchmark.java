@@ -0,0 +1,178 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.OrderInventoryServiceApplication;
+import com.itccompliance.oi.api.dto.OrderItemRequest;
+import com.itccompliance.oi.config.OrderGroupCommitProperties;
+import com.itccompliance.oi.config.OrderVersionsProperties;
+import com.itccompliance.oi.config.PhaseMetricsProperties;
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryExecutor;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryProperties;
+import com.itccompliance.oi.domain.inventory.InMemoryStockReservationEngine;
+import com.itccompliance.oi.domain.inventory.StockLedger;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.service.FulfilmentService;
+import com.itccompliance.oi.domain.service.OrderService;
+import com.itccompliance.oi.domain.service.OrderStatusCounters;
+import com.itccompliance.oi.domain.service.OrderVersions;
+import com.itccompliance.oi.domain.service.ProductService;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderStreamRepository;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Time per {@link OrderService#createOrder} call for orders of {@code lines} lines, once with
+ * mocked repositories and a transaction manager that does nothing, which leaves the service's own CPU cost,
+ * and once against the full application on H2. {@code phaseMetrics} toggles
+ * {@code oi.metrics.phases.enabled}; the timers cost far less than these results vary, so
+ * {@link PhaseTimingBenchmark} measures them on their own.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="OrderCreationBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderCreationBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Lines {
+        @Param({"1", "10"})
+        public int lines;
+
+        List<OrderItemRequest> items() {
+            List<OrderItemRequest> items = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) {
+                items.add(new OrderItemRequest("CREATE-" + i, 1));
+            }
+            return items;
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Metrics {
+        @Param({"false", "true"})
+        public boolean phaseMetrics;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mocked {
+        OrderService orderService;
+        List<OrderItemRequest> items;
+
+        @Setup(Level.Trial)
+        public void setUp(Lines lines, Metrics metrics) {
+            items = lines.items();
+            // stub-only mocks do not record invocations, so they do not grow over millions of calls
+            ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+            List<Product> products = new ArrayList<>();
+            for (OrderItemRequest item : items) {
+                products.add(createProduct(item.sku(), Integer.MAX_VALUE));
+            }
+            when(productRepository.findBySkuIn(anyCollection())).thenReturn(products);
+
+            AtomicLong ids = new AtomicLong();
+            OrderRepository orderRepository = mock(OrderRepository.class, withSettings().stubOnly());
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+                Order order = invocation.getArgument(0);
+                order.setId(ids.incrementAndGet());
+                return order;
+            });
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            StockLevelIndex stockLevelIndex = new StockLevelIndex(null, event -> { },
+                    new StockLevelIndexProperties(List.of()), meterRegistry);
+            InMemoryStockReservationEngine reservationEngine = new InMemoryStockReservationEngine(
+                    productRepository, stockLevelIndex, mock(StockLedger.class, withSettings().stubOnly()),
+                    meterRegistry);
+            ConflictRetryExecutor retryExecutor = new ConflictRetryExecutor(new NoOpTransactionManager(),
+                    new ConflictRetryProperties(5, Duration.ofMillis(2), Duration.ofMillis(100), 0.2, 100, 16),
+                    meterRegistry);
+            orderService = new OrderService(reservationEngine, orderRepository,
+                    mock(OrderStreamRepository.class, withSettings().stubOnly()),
+                    mock(FulfilmentService.class, withSettings().stubOnly()), retryExecutor,
+                    new OrderStatusCounters(orderRepository, meterRegistry),
+                    new OrderVersions(new OrderVersionsProperties(100_000)),
+                    new OrderGroupCommitProperties(false, 64, Duration.ofNanos(500_000), 10_000),
+                    new PhaseMetricsProperties(metrics.phaseMetrics), meterRegistry);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class H2 {
+        ConfigurableApplicationContext context;
+        OrderService orderService;
+        List<OrderItemRequest> items;
+
+        @Setup(Level.Trial)
+        public void startApplication(Lines lines, Metrics metrics) {
+            items = lines.items();
+            SpringApplication application = new SpringApplication(OrderInventoryServiceApplication.class);
+            application.setWebApplicationType(WebApplicationType.NONE);
+            context = application.run(
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--oi.metrics.phases.enabled=" + metrics.phaseMetrics);
+            orderService = context.getBean(OrderService.class);
+
+            ProductService productService = context.getBean(ProductService.class);
+            items.forEach(item -> productService.create(createProduct(item.sku(), Integer.MAX_VALUE)));
+        }
+
+        @TearDown(Level.Trial)
+        public void stopApplication() {
+            context.close();
+        }
+    }
+
+    /** Opens no transaction, so the mocked variant measures none of the transaction manager's work. */
+    static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+
+    @Benchmark
+    public Order mockedRepositories(Mocked mocked) {
+        return mocked.orderService.createOrder("bench@example.com", mocked.items);
+    }
+
+    @Benchmark
+    public Order h2Repositories(H2 h2) {
+        return h2.orderService.createOrder("bench@example.com", h2.items);
+    }
+}
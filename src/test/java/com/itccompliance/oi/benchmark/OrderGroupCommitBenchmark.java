@@ -0,0 +1,69 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.OrderInventoryServiceApplication;
+import com.itccompliance.oi.api.dto.OrderItemRequest;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.service.OrderService;
+import com.itccompliance.oi.domain.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+
+/**
+ * Orders/sec through {@link OrderService#createOrder} from concurrent callers, with every order in
+ * its own transaction against concurrent orders committed together
+ * ({@code oi.orders.group-commit.enabled}).
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="OrderGroupCommitBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class OrderGroupCommitBenchmark {
+
+    private static final int SKUS = 16;
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(OrderInventoryServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--oi.orders.group-commit.enabled=" + groupCommit);
+        orderService = context.getBean(OrderService.class);
+
+        ProductService productService = context.getBean(ProductService.class);
+        for (int i = 0; i < SKUS; i++) {
+            productService.create(createProduct("GROUP-" + i, Integer.MAX_VALUE));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        String sku = "GROUP-" + ThreadLocalRandom.current().nextInt(SKUS);
+        return orderService.createOrder("bench@example.com", List.of(new OrderItemRequest(sku, 1)));
+    }
+}
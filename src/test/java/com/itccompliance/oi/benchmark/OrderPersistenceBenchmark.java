@@ -0,0 +1,83 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.OrderInventoryServiceApplication;
+import com.itccompliance.oi.api.dto.OrderItemRequest;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.service.OrderService;
+import com.itccompliance.oi.domain.service.ProductService;
+import com.itccompliance.oi.support.SqlStatementCounter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+
+/**
+ * Orders/sec through {@link OrderService#createOrder} for orders of {@code lines} lines, with the
+ * SQL it takes to persist them. Besides the score, JMH reports two rates: {@code rows}, the rows
+ * inserted per second (order, items and outbox entry), and {@code statements}, the statements
+ * Hibernate prepared per second. Divide {@code statements} by the score for statements per order;
+ * a JDBC batch counts as one statement and sequence calls are included.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="OrderPersistenceBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderPersistenceBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int lines;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private List<OrderItemRequest> items;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Persisted {
+        public long statements;
+        public long rows;
+    }
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(OrderInventoryServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + SqlStatementCounter.class.getName());
+        orderService = context.getBean(OrderService.class);
+
+        ProductService productService = context.getBean(ProductService.class);
+        items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            productService.create(createProduct("PERSIST-" + i, Integer.MAX_VALUE));
+            items.add(new OrderItemRequest("PERSIST-" + i, 1));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order createOrder(Persisted persisted) {
+        SqlStatementCounter.reset();
+        Order order = orderService.createOrder("bench@example.com", items);
+        persisted.statements += SqlStatementCounter.count();
+        persisted.rows += lines + 2;
+        return order;
+    }
+}
@@ -0,0 +1,93 @@
+package com.itccompliance.oi.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.itccompliance.oi.api.dto.OrderResponse;
+import com.itccompliance.oi.api.mapper.OrderMapper;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning orders of {@code items} items into responses: {@link OrderMapper#toOrderResponse}
+ * alone, and JSON writing of one {@link OrderResponse} and of a full page of {@code pageSize}
+ * responses, with an {@link ObjectMapper} configured the way Spring Boot configures its own.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="OrderResponseBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderResponseBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private final OrderMapper orderMapper = new OrderMapper();
+    private Order order;
+    private OrderResponse response;
+    private List<OrderResponse> page;
+    private ObjectWriter singleWriter;
+    private ObjectWriter pageWriter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        order = order(1L);
+        response = orderMapper.toOrderResponse(order);
+        page = new ArrayList<>(pageSize);
+        for (long id = 1; id <= pageSize; id++) {
+            page.add(orderMapper.toOrderResponse(order(id)));
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        singleWriter = objectMapper.writerFor(OrderResponse.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, OrderResponse.class));
+    }
+
+    @Benchmark
+    public OrderResponse mapOrder() {
+        return orderMapper.toOrderResponse(order);
+    }
+
+    @Benchmark
+    public byte[] writeOrder() throws JsonProcessingException {
+        return singleWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    private Order order(long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerEmail("customer" + id + "@example.com");
+        order.setStatus(OrderStatus.RESERVED);
+        List<OrderItem> orderItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(id * 1000 + i);
+            item.setSku("SKU-" + i);
+            item.setQuantity(i + 1);
+            item.setOrder(order);
+            orderItems.add(item);
+        }
+        order.setItems(orderItems);
+        return order;
+    }
+}
@@ -0,0 +1,53 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.domain.service.EnumTimers;
+import com.itccompliance.oi.domain.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the phase timers per {@link OrderService#createOrder} call on their own, without the
+ * order work around them, so the difference between {@code enabled} true and false is small next
+ * to its error. Each call records what one order records: its outcome and the reserve, save,
+ * dispatch and commit phases, every timer with a percentile histogram as the service registers it.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="PhaseTimingBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(5)
+public class PhaseTimingBenchmark {
+
+    private enum Phase { RESERVE, SAVE, DISPATCH, COMMIT }
+
+    private enum Outcome { CREATED, FAILED }
+
+    @Param({"false", "true"})
+    public boolean enabled;
+
+    private EnumTimers<Outcome> outcomes;
+    private EnumTimers<Phase> phases;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        outcomes = new EnumTimers<>("oi.order.create", "outcome", Outcome.class, enabled, meterRegistry);
+        phases = new EnumTimers<>("oi.order.create.phase", "phase", Phase.class, enabled, meterRegistry);
+    }
+
+    @Benchmark
+    public long recordOrder() {
+        long start = outcomes.start();
+        long phaseStart = phases.start();
+        phaseStart = phases.record(Phase.RESERVE, phaseStart);
+        phaseStart = phases.record(Phase.SAVE, phaseStart);
+        phaseStart = phases.record(Phase.DISPATCH, phaseStart);
+        phases.record(Phase.COMMIT, phases.start());
+        return outcomes.record(Outcome.CREATED, start) + phaseStart;
+    }
+}
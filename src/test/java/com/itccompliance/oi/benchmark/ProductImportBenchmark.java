@@ -0,0 +1,96 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.OrderInventoryServiceApplication;
+import com.itccompliance.oi.domain.service.ProductImportListener;
+import com.itccompliance.oi.domain.service.ProductImportResult;
+import com.itccompliance.oi.domain.service.ProductImportRow;
+import com.itccompliance.oi.domain.service.ProductImportService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to import {@code rows} new products through {@link ProductImportService} into H2, including
+ * the duplicate check and the stock index updates; divide {@code rows} by the score for rows/sec.
+ * Each invocation imports a fresh set of SKUs into the same, growing table.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="ProductImportBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ProductImportBenchmark {
+
+    private static final BigDecimal PRICE = new BigDecimal("9.99");
+
+    private static final ProductImportListener IGNORE = new ProductImportListener() {
+        @Override
+        public void rejected(ProductImportRow row, String reason) {
+        }
+
+        @Override
+        public void progress(ProductImportResult soFar) {
+        }
+    };
+
+    @Param({"100000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ProductImportService importService;
+    private int invocation;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(OrderInventoryServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+        importService = context.getBean(ProductImportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProductImportResult importRows() {
+        String prefix = "IMPORT-" + invocation++ + "-";
+        ProductImportResult result = importService.importProducts(generate(prefix), IGNORE);
+        if (result.imported() != rows) {
+            throw new IllegalStateException("Imported " + result.imported() + " of " + rows + " rows");
+        }
+        return result;
+    }
+
+    private Iterator<ProductImportRow> generate(String prefix) {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows;
+            }
+
+            @Override
+            public ProductImportRow next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                next++;
+                return ProductImportRow.valid(next, prefix + next, "Imported product " + next, PRICE, next % 100);
+            }
+        };
+    }
+}
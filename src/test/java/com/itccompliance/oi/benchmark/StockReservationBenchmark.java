@@ -0,0 +1,127 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.OrderInventoryServiceApplication;
+import com.itccompliance.oi.domain.exception.InsufficientStockException;
+import com.itccompliance.oi.domain.inventory.StockReservationEngine;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.ProductRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+
+/**
+ * Orders/sec for the per-line {@code findBySku} + {@code save} path that {@code OrderService} used
+ * to run, against reserving through {@link StockReservationEngine}. Both variants insert the order
+ * itself in the same transaction so only the reservation strategy differs.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="StockReservationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class StockReservationBenchmark {
+
+    @Param({"4"})
+    public int hotSkus;
+
+    @Param({"3"})
+    public int linesPerOrder;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private OrderRepository orderRepository;
+    private StockReservationEngine reservationEngine;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        SpringApplication application = new SpringApplication(OrderInventoryServiceApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        context = application.run(
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN");
+
+        productRepository = context.getBean(ProductRepository.class);
+        orderRepository = context.getBean(OrderRepository.class);
+        reservationEngine = context.getBean(StockReservationEngine.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        for (int i = 0; i < hotSkus; i++) {
+            productRepository.save(createProduct("BENCH-" + i, Integer.MAX_VALUE));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order readModifyWritePerLine() {
+        Map<String, Integer> lines = randomLines();
+        return transactionTemplate.execute(status -> {
+            for (Map.Entry<String, Integer> line : lines.entrySet()) {
+                Product product = productRepository.findBySku(line.getKey()).orElseThrow();
+                if (product.getAvailableQuantity() < line.getValue()) {
+                    throw new InsufficientStockException(line.getKey());
+                }
+                product.setAvailableQuantity(product.getAvailableQuantity() - line.getValue());
+                productRepository.save(product);
+            }
+            return orderRepository.save(newOrder(lines));
+        });
+    }
+
+    @Benchmark
+    public Order reservationEngine() {
+        Map<String, Integer> lines = randomLines();
+        return transactionTemplate.execute(status -> {
+            reservationEngine.reserve(lines);
+            return orderRepository.save(newOrder(lines));
+        });
+    }
+
+    private Map<String, Integer> randomLines() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Integer> lines = new TreeMap<>();
+        for (int i = 0; i < linesPerOrder; i++) {
+            lines.merge("BENCH-" + random.nextInt(hotSkus), 1, Integer::sum);
+        }
+        return lines;
+    }
+
+    private static Order newOrder(Map<String, Integer> lines) {
+        Order order = new Order();
+        order.setCustomerEmail("bench@example.com");
+        List<OrderItem> items = new ArrayList<>(lines.size());
+        lines.forEach((sku, quantity) -> {
+            OrderItem item = new OrderItem();
+            item.setSku(sku);
+            item.setQuantity(quantity);
+            item.setOrder(order);
+            items.add(item);
+        });
+        order.setItems(items);
+        order.setStatus(OrderStatus.RESERVED);
+        return order;
+    }
+}
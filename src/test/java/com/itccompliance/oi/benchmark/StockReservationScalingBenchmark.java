@@ -0,0 +1,100 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import com.itccompliance.oi.domain.inventory.InMemoryStockReservationEngine;
+import com.itccompliance.oi.domain.inventory.StockLedger;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Reservations/sec of {@link InMemoryStockReservationEngine} with 1, 2, 4 and 8 threads reserving
+ * {@code linesPerOrder} lines over {@code skus} SKUs, without a database or transaction, so the
+ * scores show how the counters and {@link StockLevelIndex} hold up under contention. Fewer SKUs
+ * means more threads fighting over the same counters. {@link StockLedger} is stubbed, as its
+ * movements would otherwise pile up unflushed.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="StockReservationScalingBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockReservationScalingBenchmark {
+
+    @Param({"4", "1000"})
+    public int skus;
+
+    @Param({"3"})
+    public int linesPerOrder;
+
+    private InMemoryStockReservationEngine reservationEngine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Product> products = new ArrayList<>(skus);
+        for (int i = 0; i < skus; i++) {
+            products.add(createProduct("SCALE-" + i, Integer.MAX_VALUE));
+        }
+        ProductRepository productRepository = mock(ProductRepository.class, withSettings().stubOnly());
+        when(productRepository.findBySkuIn(anyCollection())).thenReturn(products);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StockLevelIndex stockLevelIndex = new StockLevelIndex(null, event -> { },
+                new StockLevelIndexProperties(List.of()), meterRegistry);
+        reservationEngine = new InMemoryStockReservationEngine(productRepository, stockLevelIndex,
+                mock(StockLedger.class, withSettings().stubOnly()), meterRegistry);
+        // the stub returns every product, so this first reservation seeds all counters
+        reservationEngine.reserve(Map.of("SCALE-0", 1));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void threads1() {
+        reserve();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public void threads2() {
+        reserve();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void threads4() {
+        reserve();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void threads8() {
+        reserve();
+    }
+
+    private void reserve() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Map<String, Integer> lines = new TreeMap<>();
+        for (int i = 0; i < linesPerOrder; i++) {
+            lines.merge("SCALE-" + random.nextInt(skus), 1, Integer::sum);
+        }
+        reservationEngine.reserve(lines);
+    }
+}
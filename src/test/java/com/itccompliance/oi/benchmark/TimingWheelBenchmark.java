@@ -0,0 +1,104 @@
+package com.itccompliance.oi.benchmark;
+
+import com.itccompliance.oi.domain.concurrency.HashedTimingWheel;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of holding {@code pending} fulfilment deadlines in {@link HashedTimingWheel} against a
+ * single-threaded {@link ScheduledThreadPoolExecutor}, the timer the fulfilment executor used before.
+ * <ul>
+ *     <li>{@code schedule*}: time to insert {@code pending} tasks with delays of one to ten minutes,
+ *     so every insert lands in an ever fuller timer.</li>
+ *     <li>{@code expire*}: time to insert {@code pending} tasks with delays spread over 100–300ms,
+ *     as fulfilment does, and have every one of them fire. Both timers pay the same 300ms floor.</li>
+ * </ul>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="TimingWheelBenchmark"}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TimingWheelBenchmark {
+
+    private static final Runnable NO_OP = () -> { };
+
+    @Param({"100000", "1000000"})
+    public int pending;
+
+    private long[] longDelaysNanos;
+    private long[] shortDelaysNanos;
+    private HashedTimingWheel wheel;
+    private ScheduledThreadPoolExecutor executor;
+
+    @Setup(Level.Trial)
+    public void generateDelays() {
+        longDelaysNanos = randomDelays(TimeUnit.MINUTES.toNanos(1), TimeUnit.MINUTES.toNanos(10));
+        shortDelaysNanos = randomDelays(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Setup(Level.Invocation)
+    public void startTimers() {
+        wheel = new HashedTimingWheel("bench-wheel", Duration.ofMillis(10), 512);
+        executor = new ScheduledThreadPoolExecutor(1);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopTimers() throws InterruptedException {
+        wheel.stop();
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public int scheduleTimingWheel() {
+        for (long delay : longDelaysNanos) {
+            wheel.schedule(NO_OP, Duration.ofNanos(delay));
+        }
+        return wheel.getPendingCount();
+    }
+
+    @Benchmark
+    public int scheduleScheduledThreadPool() {
+        for (long delay : longDelaysNanos) {
+            executor.schedule(NO_OP, delay, TimeUnit.NANOSECONDS);
+        }
+        return executor.getQueue().size();
+    }
+
+    @Benchmark
+    public void expireTimingWheel() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(pending);
+        Runnable task = fired::countDown;
+        for (long delay : shortDelaysNanos) {
+            wheel.schedule(task, Duration.ofNanos(delay));
+        }
+        fired.await();
+    }
+
+    @Benchmark
+    public void expireScheduledThreadPool() throws InterruptedException {
+        CountDownLatch fired = new CountDownLatch(pending);
+        Runnable task = fired::countDown;
+        for (long delay : shortDelaysNanos) {
+            executor.schedule(task, delay, TimeUnit.NANOSECONDS);
+        }
+        fired.await();
+    }
+
+    private long[] randomDelays(long min, long max) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] delays = new long[pending];
+        for (int i = 0; i < delays.length; i++) {
+            delays[i] = random.nextLong(min, max);
+        }
+        return delays;
+    }
+}
@@ -0,0 +1,38 @@
+package com.itccompliance.oi.config;
+
+import com.itccompliance.oi.domain.concurrency.BoundedTaskExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class AsyncConfigTest {
+
+    @Test
+    void virtualThreadsSupported_OnlyFromJava21() {
+        assertThat(AsyncConfig.virtualThreadsSupported(17)).isFalse();
+        assertThat(AsyncConfig.virtualThreadsSupported(21)).isTrue();
+    }
+
+    @Test
+    void fulfilmentExecutor_FallsBackToPlatformThreads_WhenVirtualThreadsAreUnsupported() throws Exception {
+        assumeFalse(AsyncConfig.virtualThreadsSupported(Runtime.version().feature()));
+        FulfilmentExecutorProperties properties = new FulfilmentExecutorProperties(
+                FulfilmentExecutorProperties.Mode.VIRTUAL, 4, 100, Duration.ZERO, Duration.ofMillis(10), 64);
+
+        BoundedTaskExecutor executor = new AsyncConfig().fulfilmentExecutor(properties, new SimpleMeterRegistry());
+        try {
+            CompletableFuture<String> threadName = new CompletableFuture<>();
+            executor.execute(() -> threadName.complete(Thread.currentThread().getName()));
+
+            assertThat(threadName.get(5, TimeUnit.SECONDS)).startsWith("fulfilment-");
+        } finally {
+            executor.destroy();
+        }
+    }
+}
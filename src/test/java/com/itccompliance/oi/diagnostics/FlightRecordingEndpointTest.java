@@ -0,0 +1,136 @@
+package com.itccompliance.oi.diagnostics;
+
+import com.itccompliance.oi.config.FlightRecordingProperties;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "oi.flight-recording.enabled=true",
+        "management.endpoints.web.exposure.include=health,flightrecording"
+})
+@AutoConfigureMockMvc
+class FlightRecordingEndpointTest {
+
+    private static final String ENDPOINT = "/actuator/flightrecording";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void discardRecording() throws Exception {
+        mockMvc.perform(delete(ENDPOINT));
+    }
+
+    @Test
+    void recording_CapturesOrderCreationReservationAndFulfilment() throws Exception {
+        mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"duration\":\"30s\",\"settings\":\"default\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andExpect(jsonPath("$.duration").value("PT30S"));
+
+        mockMvc.perform(post("/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sku\":\"JFR-1\",\"name\":\"Recorded\",\"price\":5.00,\"availableQuantity\":10}"))
+                .andExpect(status().isCreated());
+        String location = mockMvc.perform(post("/orders").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"customerEmail\":\"jfr@example.com\",\"items\":[{\"sku\":\"JFR-1\",\"quantity\":2}]}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+        long orderId = Long.parseLong(location.substring(location.lastIndexOf('/') + 1));
+        awaitFulfilment(orderId);
+
+        byte[] jfr = mockMvc.perform(delete(ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<RecordedEvent> recorded = readEvents(jfr);
+        assertThat(recorded).extracting(event -> event.getEventType().getName())
+                .doesNotContain("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+        List<RecordedEvent> events = recorded.stream()
+                .filter(event -> event.getEventType().getName().startsWith("com.itccompliance.oi."))
+                .filter(event -> event.getLong("orderId") == orderId)
+                .toList();
+
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("com.itccompliance.oi.OrderCreation"))
+                .singleElement().satisfies(event -> {
+                    assertThat(event.getInt("lines")).isEqualTo(1);
+                    assertThat(event.getString("outcome")).isEqualTo("created");
+                });
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("com.itccompliance.oi.StockReservation"))
+                .singleElement().satisfies(event -> assertThat(event.getString("outcome")).isEqualTo("reserved"));
+        assertThat(events).filteredOn(event -> event.getEventType().getName().equals("com.itccompliance.oi.FulfilmentTransition"))
+                .extracting(event -> event.getString("transition"))
+                .contains("enqueued", "dispatched", "fulfilled");
+        mockMvc.perform(get(ENDPOINT)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void start_RejectsSecondRecordingAndUnknownSettings() throws Exception {
+        mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_JSON).content("{\"settings\":\"no-such-settings\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_JSON).content("{\"duration\":\"1h\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.duration").value("PT10M"));
+        mockMvc.perform(post(ENDPOINT).contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get(ENDPOINT))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+    }
+
+    @Test
+    void endpoint_ExistsOnlyWhenEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withUserConfiguration(FlightRecordingEndpoint.class)
+                .withBean(FlightRecordingProperties.class, () -> new FlightRecordingProperties(false,
+                        Duration.ofSeconds(60), Duration.ofMinutes(10), DataSize.ofMegabytes(100), "profile"));
+
+        runner.run(context -> assertThat(context).doesNotHaveBean(FlightRecordingEndpoint.class));
+        runner.withPropertyValues("oi.flight-recording.enabled=true")
+                .run(context -> assertThat(context).hasSingleBean(FlightRecordingEndpoint.class));
+    }
+
+    private void awaitFulfilment(long orderId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (orderRepository.findById(orderId).orElseThrow().getStatus() != OrderStatus.FULFILLED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.FULFILLED);
+    }
+
+    private static List<RecordedEvent> readEvents(byte[] jfr) throws Exception {
+        Path file = Files.createTempFile("recording", ".jfr");
+        try {
+            Files.write(file, jfr);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BatchingLoopTest {
+
+    private final List<List<Integer>> flushed = Collections.synchronizedList(new ArrayList<>());
+    private final List<Integer> abandoned = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void offer_FlushesInBatchesOfAtMostMaxSize() throws InterruptedException {
+        BatchingLoop<Integer> loop = new BatchingLoop<>("test-batcher", 4, Duration.ofMillis(50), 100,
+                batch -> flushed.add(List.copyOf(batch)), abandoned::addAll);
+        loop.start();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(loop.offer(i)).isTrue();
+        }
+        loop.stop(Duration.ofSeconds(10));
+
+        assertThat(flushed).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(4));
+        assertThat(flushed.stream().flatMap(List::stream)).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(abandoned).isEmpty();
+    }
+
+    @Test
+    void stop_RejectsLaterItemsAndAbandonsThoseTheWorkerDidNotReach() throws InterruptedException {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BatchingLoop<Integer> loop = new BatchingLoop<>("test-batcher", 1, Duration.ZERO, 100, batch -> {
+            flushing.countDown();
+            awaitQuietly(release);
+            flushed.add(List.copyOf(batch));
+        }, abandoned::addAll);
+        loop.start();
+
+        loop.offer(1);
+        assertThat(flushing.await(10, TimeUnit.SECONDS)).isTrue();
+        loop.offer(2);
+        loop.offer(3);
+        loop.stop(Duration.ofMillis(50));
+        release.countDown();
+
+        assertThat(loop.offer(4)).isFalse();
+        assertThat(loop.put(5)).isFalse();
+        assertThat(abandoned).containsExactly(2, 3);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
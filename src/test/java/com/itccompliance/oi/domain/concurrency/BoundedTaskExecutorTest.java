@@ -0,0 +1,112 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedTaskExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedTaskExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new BoundedTaskExecutor("test.executor", Executors.newCachedThreadPool(),
+                new HashedTimingWheel("test-timer", Duration.ofMillis(1), 64), 2, 3, Duration.ZERO, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        executor.destroy();
+    }
+
+    @Test
+    void execute_CapsRunningTasksAndQueuesTheRest() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                started.countDown();
+                awaitRelease();
+            });
+        }
+
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getActiveCount()).isEqualTo(2);
+        assertThat(executor.getQueuedCount()).isEqualTo(3);
+        assertThat(meterRegistry.get("test.executor.active").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("test.executor.queued").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void execute_RejectsWhenRunningAndQueuedSlotsAreFull() {
+        for (int i = 0; i < 5; i++) {
+            executor.execute(this::awaitRelease);
+        }
+
+        assertThatThrownBy(() -> executor.execute(() -> { }))
+                .isInstanceOf(TaskRejectedException.class)
+                .hasMessageContaining("test.executor");
+        assertThat(meterRegistry.get("test.executor.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_FreesSlotsOnceTasksComplete() throws Exception {
+        CountDownLatch done = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+                awaitRelease();
+                done.countDown();
+            });
+        }
+        release.countDown();
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CountDownLatch ranAgain = new CountDownLatch(1);
+        executor.execute(ranAgain::countDown);
+
+        assertThat(ranAgain.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("test.executor.wait").timer().count()).isEqualTo(6);
+    }
+
+    @Test
+    void schedule_HoldsSlotButNoThreadUntilDue() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        executor.schedule(ran::countDown, Duration.ofMillis(200));
+
+        assertThat(executor.getScheduledCount()).isEqualTo(1);
+        assertThat(executor.getActiveCount()).isZero();
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getScheduledCount()).isZero();
+    }
+
+    @Test
+    void schedule_RejectsWhenFull() {
+        for (int i = 0; i < 5; i++) {
+            executor.schedule(() -> { }, Duration.ofMinutes(1));
+        }
+
+        assertThatThrownBy(() -> executor.schedule(() -> { }, Duration.ofMinutes(1)))
+                .isInstanceOf(TaskRejectedException.class);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConflictRetryExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void executeInTransaction_RetriesConflictsInFreshTransactions() {
+        ConflictRetryExecutor executor = executor(5, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = executor.executeInTransaction("update", List.of("SKU001"), () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale product");
+            }
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(attempts.get()).isEqualTo(3);
+        verify(transactionManager, times(3)).getTransaction(any());
+        assertThat(meterRegistry.find("oi.stock.conflicts").tag("operation", "update").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.find("oi.stock.retries").tag("operation", "update").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void executeInTransaction_GivesUpAfterMaxAttempts() {
+        ConflictRetryExecutor executor = executor(3, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.executeInTransaction("reserve", List.of("SKU001"), () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale product");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(meterRegistry.find("oi.stock.retries.exhausted").tag("reason", "attempts").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void executeInTransaction_StopsRetrying_WhenBudgetIsSpent() {
+        ConflictRetryExecutor executor = executor(5, 1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.executeInTransaction("reserve", List.of("SKU001"), () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale product");
+        })).isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(attempts.get()).isEqualTo(2);
+        assertThat(meterRegistry.find("oi.stock.retries.exhausted").tag("reason", "budget").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void executeInTransaction_DoesNotRetryOtherFailures() {
+        ConflictRetryExecutor executor = executor(5, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.executeInTransaction("update", List.of("SKU001"), () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        })).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(meterRegistry.find("oi.stock.conflicts").counter()).isNull();
+    }
+
+    private ConflictRetryExecutor executor(int maxAttempts, int budgetMax) {
+        ConflictRetryProperties properties = new ConflictRetryProperties(
+                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(5), 0.0, budgetMax, 16);
+        return new ConflictRetryExecutor(transactionManager, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,188 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitterTest {
+
+    private static final int CALLERS = 50;
+    private static final int BAD_REQUEST = 7;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Integer>> committed = Collections.synchronizedList(new ArrayList<>());
+    private GroupCommitter<Integer, String> committer;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (committer != null) {
+            committer.stop();
+        }
+    }
+
+    @Test
+    void submit_GroupsConcurrentCallersAndReturnsEachItsOwnResult() throws Exception {
+        start(requests -> {
+            committed.add(List.copyOf(requests));
+            return requests.stream().map(request -> "result-" + request).toList();
+        });
+
+        List<String> results = submitConcurrently();
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertThat(results.get(i)).isEqualTo("result-" + i);
+        }
+        assertThat(committed.stream().mapToInt(List::size).sum()).isEqualTo(CALLERS);
+        assertThat(committed.size()).isLessThan(CALLERS);
+        assertThat(meterRegistry.get("oi.group.commit.size").tag("name", "test").summary().count())
+                .isEqualTo(committed.size());
+    }
+
+    @Test
+    void submit_RetriesEachRequestAlone_WhenTheBatchFails() throws Exception {
+        List<Integer> committedAlone = Collections.synchronizedList(new ArrayList<>());
+        start(requests -> {
+            if (requests.contains(BAD_REQUEST)) {
+                throw new IllegalArgumentException("bad request in batch");
+            }
+            committed.add(List.copyOf(requests));
+            return requests.stream().map(request -> "result-" + request).toList();
+        }, request -> {
+            if (request == BAD_REQUEST) {
+                throw new IllegalArgumentException("bad request " + request);
+            }
+            committedAlone.add(request);
+            return "alone-" + request;
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int request = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return committer.submit(request);
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < CALLERS; i++) {
+            Future<String> result = results.get(i);
+            if (i == BAD_REQUEST) {
+                assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                        .hasCauseInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("bad request");
+            } else {
+                assertThat(result.get(10, TimeUnit.SECONDS)).endsWith("-" + i);
+            }
+        }
+        assertThat(committedAlone).doesNotContain(BAD_REQUEST);
+        assertThat(committed.stream().mapToInt(List::size).sum() + committedAlone.size()).isEqualTo(CALLERS - 1);
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_FailsEveryCallerOfAFailedBatch_WhenTheirRetriesFailToo() throws Exception {
+        start(requests -> {
+            throw new IllegalStateException("commit failed");
+        }, request -> {
+            throw new IllegalStateException("commit failed");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int request = i;
+            results.add(executor.submit(() -> committer.submit(request)));
+        }
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("commit failed");
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void submit_RejectsRequestsOnceStopped() throws InterruptedException {
+        start(requests -> requests.stream().map(String::valueOf).toList());
+        committer.stop();
+
+        assertThatThrownBy(() -> committer.submit(1)).isInstanceOf(TaskRejectedException.class);
+    }
+
+    @Test
+    void submit_RacingStop_IsEitherCommittedOrRejected() throws Exception {
+        start(requests -> requests.stream().map(String::valueOf).toList());
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int request = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                return committer.submit(request);
+            }));
+        }
+
+        start.countDown();
+        committer.stop();
+
+        for (Future<String> result : results) {
+            try {
+                assertThat(result.get(10, TimeUnit.SECONDS)).isNotNull();
+            } catch (ExecutionException rejected) {
+                assertThat(rejected).hasCauseInstanceOf(TaskRejectedException.class);
+            }
+        }
+        executor.shutdown();
+    }
+
+    private void start(Function<List<Integer>, List<String>> commit) {
+        start(commit, request -> commit.apply(List.of(request)).get(0));
+    }
+
+    private void start(Function<List<Integer>, List<String>> commit, Function<Integer, String> commitOne) {
+        committer = new GroupCommitter<>("test", 16, Duration.ofMillis(5), 1_000, commit, commitOne,
+                meterRegistry);
+        committer.start();
+    }
+
+    private List<String> submitConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            int request = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return committer.submit(request);
+            }));
+        }
+        start.countDown();
+
+        List<String> results = new ArrayList<>();
+        for (Future<String> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        return results;
+    }
+}
@@ -0,0 +1,89 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HashedTimingWheelTest {
+
+    private HashedTimingWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new HashedTimingWheel("test-wheel", Duration.ofMillis(5), 8);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        wheel.stop();
+    }
+
+    @Test
+    void schedule_RunsTaskNoEarlierThanItsDelay() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        AtomicLong ranAt = new AtomicLong();
+        long scheduledAt = System.nanoTime();
+
+        wheel.schedule(() -> {
+            ranAt.set(System.nanoTime());
+            ran.countDown();
+        }, Duration.ofMillis(60));
+
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(ranAt.get() - scheduledAt).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(60));
+        assertThat(wheel.getPendingCount()).isZero();
+    }
+
+    @Test
+    void schedule_RunsDelaysSpanningSeveralRevolutions() throws Exception {
+        // 8 buckets of 5ms: a 130ms delay needs three revolutions
+        CountDownLatch ran = new CountDownLatch(3);
+        wheel.schedule(ran::countDown, Duration.ofMillis(130));
+        wheel.schedule(ran::countDown, Duration.ofMillis(40));
+        wheel.schedule(ran::countDown, Duration.ZERO);
+
+        assertThat(wheel.getPendingCount()).isEqualTo(3);
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void schedule_RunsEveryTaskOfALargeBurst() throws Exception {
+        int tasks = 200_000;
+        CountDownLatch ran = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            wheel.schedule(ran::countDown, Duration.ofMillis(i % 100));
+        }
+
+        assertThat(ran.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(wheel.getPendingCount()).isZero();
+    }
+
+    @Test
+    void schedule_KeepsTickingAfterATaskFails() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        wheel.schedule(() -> {
+            throw new IllegalStateException("boom");
+        }, Duration.ZERO);
+        wheel.schedule(ran::countDown, Duration.ofMillis(20));
+
+        assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void schedule_RejectsOnceStopped() throws Exception {
+        wheel.stop();
+
+        assertThatThrownBy(() -> wheel.schedule(() -> { }, Duration.ZERO))
+                .isInstanceOf(RejectedExecutionException.class)
+                .hasMessageContaining("test-wheel");
+    }
+}
@@ -0,0 +1,122 @@
+package com.itccompliance.oi.domain.concurrency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int WAITERS = 16;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_SharesOneLoadBetweenConcurrentCallers() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("SKU001", this::blockingLoad));
+        awaitLoaderStarted();
+
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(executor.submit(() -> singleFlight.execute("SKU001", this::blockingLoad)));
+        }
+        awaitCoalesced(WAITERS);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        for (Future<String> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+        }
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(meterRegistry.get("oi.singleflight.loads").tag("name", "test").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_PropagatesTheLoadFailureToEveryWaiter() throws Exception {
+        Future<String> leader = executor.submit(() -> singleFlight.execute("SKU001", () -> {
+            blockingLoad();
+            throw new IllegalStateException("boom");
+        }));
+        awaitLoaderStarted();
+        Future<String> waiter = executor.submit(() -> singleFlight.execute("SKU001", this::blockingLoad));
+        awaitCoalesced(1);
+        release.countDown();
+
+        for (Future<String> caller : List.of(leader, waiter)) {
+            assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(loaderCalls).hasValue(1);
+    }
+
+    @Test
+    void execute_LoadsAgainOnceThePreviousFlightHasLanded() {
+        singleFlight.execute("SKU001", () -> String.valueOf(loaderCalls.incrementAndGet()));
+        singleFlight.execute("SKU001", () -> String.valueOf(loaderCalls.incrementAndGet()));
+
+        assertThat(loaderCalls).hasValue(2);
+        assertThat(meterRegistry.get("oi.singleflight.coalesced").tag("name", "test").counter().count()).isZero();
+    }
+
+    @Test
+    void execute_KeepsDifferentKeysApart() {
+        assertThat(singleFlight.execute("A", () -> "a")).isEqualTo("a");
+        assertThat(singleFlight.execute("B", () -> "b")).isEqualTo("b");
+    }
+
+    private String blockingLoad() {
+        loaderCalls.incrementAndGet();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "loaded";
+    }
+
+    private void awaitLoaderStarted() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (loaderCalls.get() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private void awaitCoalesced(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("oi.singleflight.coalesced").counter().count() < waiters
+                && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.domain.exception.InsufficientStockException;
+import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.model.StockMovementType;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryStockReservationEngineTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLevelIndex stockLevelIndex;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    private InMemoryStockReservationEngine reservationEngine;
+
+    @BeforeEach
+    void setUp() {
+        reservationEngine = new InMemoryStockReservationEngine(productRepository, stockLevelIndex, stockLedger,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reserve_LoadsQuantityOnceAndDecrementsInMemory() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(createProduct("SKU001", 10)));
+
+        reservationEngine.reserve(Map.of("SKU001", 3));
+        reservationEngine.reserve(Map.of("SKU001", 4));
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(3);
+        verify(productRepository, times(1)).findBySkuIn(any());
+    }
+
+    @Test
+    void reserve_PushesLiveQuantityToStockLevelIndex() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(createProduct("SKU001", 10)));
+        ArgumentCaptor<IntSupplier> quantity = ArgumentCaptor.forClass(IntSupplier.class);
+
+        reservationEngine.reserve(Map.of("SKU001", 3));
+
+        verify(stockLevelIndex).update(eq("SKU001"), quantity.capture());
+        assertThat(quantity.getValue().getAsInt()).isEqualTo(7);
+    }
+
+    @Test
+    void reserve_LeavesIndexAlone_WhenALineCannotBeSatisfied() {
+        when(productRepository.findBySkuIn(List.of("SKU001", "SKU002")))
+                .thenReturn(List.of(createProduct("SKU001", 10), createProduct("SKU002", 1)));
+
+        assertThatThrownBy(() -> reservationEngine.reserve(Map.of("SKU001", 3, "SKU002", 2)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(10);
+        verifyNoInteractions(stockLevelIndex);
+    }
+
+    @Test
+    void reserve_ThrowsWhenProductNotFound() {
+        when(productRepository.findBySkuIn(List.of("MISSING"))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> reservationEngine.reserve(Map.of("MISSING", 1)))
+                .isInstanceOf(ProductNotFoundException.class);
+        assertThat(reservationEngine.trackedQuantity("MISSING")).isNull();
+    }
+
+    @Test
+    void reserve_NeverOversells_UnderConcurrentOrders() throws Exception {
+        when(productRepository.findBySkuIn(List.of("HOT"))).thenReturn(List.of(createProduct("HOT", 1_000)));
+
+        int threads = 8;
+        int attemptsPerThread = 500;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        reservationEngine.reserve(Map.of("HOT", 1));
+                        accepted.incrementAndGet();
+                    } catch (InsufficientStockException ignored) {
+                        // expected once the SKU sells out
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(1_000);
+        assertThat(reservationEngine.trackedQuantity("HOT")).isZero();
+    }
+
+    @Test
+    void reserve_AppendsMovementsOnlyForCompleteReservations() {
+        when(productRepository.findBySkuIn(List.of("SKU001", "SKU002")))
+                .thenReturn(List.of(createProduct("SKU001", 10), createProduct("SKU002", 1)));
+
+        reservationEngine.reserve(Map.of("SKU001", 3, "SKU002", 1));
+        assertThatThrownBy(() -> reservationEngine.reserve(Map.of("SKU001", 3, "SKU002", 1)))
+                .isInstanceOf(InsufficientStockException.class);
+        reservationEngine.release(Map.of("SKU001", 3));
+
+        InOrder inOrder = inOrder(stockLedger);
+        inOrder.verify(stockLedger).append("SKU001", StockMovementType.RESERVATION, -3);
+        inOrder.verify(stockLedger).append("SKU002", StockMovementType.RESERVATION, -1);
+        inOrder.verify(stockLedger).append("SKU001", StockMovementType.RELEASE, 3);
+        verifyNoMoreInteractions(stockLedger);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(10);
+    }
+
+    @Test
+    void restock_ReplacesQuantityAndAppendsTheDifference() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(createProduct("SKU001", 10)));
+        reservationEngine.reserve(Map.of("SKU001", 4));
+
+        reservationEngine.restock("SKU001", 25);
+
+        assertThat(settledRestock("SKU001")).isEqualTo(19);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(25);
+    }
+
+    @Test
+    void restock_SeedsUntrackedSkuBeforeReplacingIt() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(createProduct("SKU001", 10)));
+
+        reservationEngine.restock("SKU001", 4);
+
+        assertThat(settledRestock("SKU001")).isEqualTo(-6);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(4);
+    }
+
+    @Test
+    void reserve_InsideRolledBackTransaction_ReturnsStockWithoutAppendingRelease() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(createProduct("SKU001", 10)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        reservationEngine.reserve(Map.of("SKU001", 4));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(10);
+        verify(stockLedger).append("SKU001", StockMovementType.RESERVATION, -4);
+        verifyNoMoreInteractions(stockLedger);
+    }
+
+    @Test
+    void recover_TracksSkusWithMovementsAfterLatestCheckpoint() {
+        when(stockLedger.recover()).thenReturn(Map.of("SKU001", 7));
+
+        reservationEngine.recover();
+        reservationEngine.reserve(Map.of("SKU001", 2));
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(5);
+        verify(productRepository, never()).findBySkuIn(any());
+        verify(stockLevelIndex, times(2)).update(eq("SKU001"), any());
+    }
+
+    @Test
+    void reserveEach_SeedsAllSkusOnceAndDecidesEachOrderOnItsOwn() {
+        when(productRepository.findBySkuIn(List.of("MISSING", "SKU001", "SKU002")))
+                .thenReturn(List.of(createProduct("SKU001", 10), createProduct("SKU002", 5)));
+
+        List<RuntimeException> rejections = reservationEngine.reserveEach(List.of(
+                Map.of("SKU001", 6),
+                Map.of("SKU001", 3, "MISSING", 1),
+                Map.of("SKU001", 3, "SKU002", 2),
+                Map.of("SKU001", 1, "SKU002", 4)));
+
+        assertThat(rejections.get(0)).isNull();
+        assertThat(rejections.get(1)).isInstanceOf(ProductNotFoundException.class);
+        assertThat(rejections.get(2)).isNull();
+        assertThat(rejections.get(3)).isInstanceOf(InsufficientStockException.class);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(1);
+        assertThat(reservationEngine.trackedQuantity("SKU002")).isEqualTo(3);
+        verify(productRepository, times(1)).findBySkuIn(any());
+    }
+
+    /** Settles the restock the engine handed to the ledger, as the ledger does on commit. */
+    private int settledRestock(String sku) {
+        ArgumentCaptor<IntSupplier> quantity = ArgumentCaptor.forClass(IntSupplier.class);
+        ArgumentCaptor<IntConsumer> committed = ArgumentCaptor.forClass(IntConsumer.class);
+        verify(stockLedger).appendOnCommit(eq(sku), eq(StockMovementType.RESTOCK), quantity.capture(),
+                committed.capture());
+        int delta = quantity.getValue().getAsInt();
+        committed.getValue().accept(delta);
+        return delta;
+    }
+}
@@ -0,0 +1,216 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import com.itccompliance.oi.domain.exception.InsufficientStockException;
+import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "oi.inventory.reservation-mode=jdbc")
+@Import({JdbcStockReservationEngine.class, StockLevelIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcStockReservationEngineTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(StockLevelIndexProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private JdbcStockReservationEngine reservationEngine;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        productRepository.save(createProduct("SKU001", 10));
+        productRepository.save(createProduct("SKU002", 5));
+        stockLevelIndex.load();
+    }
+
+    @Test
+    void reserve_DecrementsEveryLine() {
+        transactionTemplate.executeWithoutResult(status ->
+                reservationEngine.reserve(Map.of("SKU001", 3, "SKU002", 2)));
+
+        assertThat(quantityOf("SKU001")).isEqualTo(7);
+        assertThat(quantityOf("SKU002")).isEqualTo(3);
+        assertThat(stockLevelIndex.quantity("SKU001")).isEqualTo(7);
+        assertThat(stockLevelIndex.quantity("SKU002")).isEqualTo(3);
+    }
+
+    @Test
+    void reserve_RollsBackWholeOrder_WhenOneLineCannotBeSatisfied() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                reservationEngine.reserve(Map.of("SKU001", 3, "SKU002", 6))))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("SKU002");
+
+        assertThat(quantityOf("SKU001")).isEqualTo(10);
+        assertThat(quantityOf("SKU002")).isEqualTo(5);
+        assertThat(stockLevelIndex.quantity("SKU001")).isEqualTo(10);
+    }
+
+    @Test
+    void reserve_BumpsVersion_SoStaleProductUpdatesFail() {
+        Product stale = productRepository.findBySku("SKU001").orElseThrow();
+
+        transactionTemplate.executeWithoutResult(status ->
+                reservationEngine.reserve(Map.of("SKU001", 3)));
+
+        stale.setName("Renamed");
+        assertThatThrownBy(() -> productRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(quantityOf("SKU001")).isEqualTo(7);
+    }
+
+    @Test
+    void reserve_ThrowsWhenProductNotFound() {
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status ->
+                reservationEngine.reserve(Map.of("SKU001", 1, "MISSING", 1))))
+                .isInstanceOf(ProductNotFoundException.class)
+                .hasMessageContaining("MISSING");
+
+        assertThat(quantityOf("SKU001")).isEqualTo(10);
+    }
+
+    @Test
+    void reserve_NeverOversells_UnderConcurrentOrders() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 5;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                reservationEngine.reserve(Map.of("SKU001", 1)));
+                        accepted.incrementAndGet();
+                    } catch (InsufficientStockException ignored) {
+                        // expected once the SKU sells out
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(accepted.get()).isEqualTo(10);
+        assertThat(quantityOf("SKU001")).isZero();
+        assertThat(stockLevelIndex.quantity("SKU001")).isZero();
+    }
+
+    @Test
+    void reserveEach_DecrementsAcceptedOrdersOnly() {
+        List<RuntimeException> rejections = transactionTemplate.execute(status -> reservationEngine.reserveEach(List.of(
+                Map.of("SKU001", 4, "SKU002", 4),
+                Map.of("SKU002", 2),
+                Map.of("SKU001", 6, "MISSING", 1),
+                Map.of("SKU001", 6))));
+
+        assertThat(rejections.get(0)).isNull();
+        assertThat(rejections.get(1)).isInstanceOf(InsufficientStockException.class).hasMessageContaining("SKU002");
+        assertThat(rejections.get(2)).isInstanceOf(ProductNotFoundException.class).hasMessageContaining("MISSING");
+        assertThat(rejections.get(3)).isNull();
+        assertThat(quantityOf("SKU001")).isZero();
+        assertThat(quantityOf("SKU002")).isEqualTo(1);
+        assertThat(stockLevelIndex.quantity("SKU001")).isZero();
+        assertThat(stockLevelIndex.quantity("SKU002")).isEqualTo(1);
+    }
+
+    @Test
+    void restock_WritesQuantityThatProductUpdatesLeaveAlone() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Product product = productRepository.findBySku("SKU001").orElseThrow();
+            product.setName("Restocked");
+            product.setAvailableQuantity(99);
+            reservationEngine.restock("SKU001", 25);
+            productRepository.save(product);
+        });
+
+        assertThat(productRepository.findBySku("SKU001").orElseThrow())
+                .extracting(Product::getName, Product::getAvailableQuantity)
+                .containsExactly("Restocked", 25);
+        assertThat(stockLevelIndex.quantity("SKU001")).isEqualTo(25);
+    }
+
+    @Test
+    void restock_KeepsIndexInStepWithTable_UnderConcurrentOrders() throws Exception {
+        int threads = 4;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                reservationEngine.reserve(Map.of("SKU001", 1)));
+                    } catch (InsufficientStockException ignored) {
+                        // expected while the SKU is sold out between restocks
+                    }
+                }
+                return null;
+            });
+        }
+        executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 10; i++) {
+                reservationEngine.restock("SKU001", 10);
+            }
+            return null;
+        });
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(stockLevelIndex.quantity("SKU001")).isEqualTo(quantityOf("SKU001"));
+    }
+
+    private int quantityOf(String sku) {
+        return productRepository.findBySku(sku).orElseThrow().getAvailableQuantity();
+    }
+}
@@ -0,0 +1,197 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import com.itccompliance.oi.domain.model.Product;
+import com.itccompliance.oi.domain.model.StockMovementType;
+import com.itccompliance.oi.persistence.ProductRepository;
+import com.itccompliance.oi.persistence.StockMovementRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({StockLedger.class, StockLevelIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerTest {
+
+    @TestConfiguration
+    @EnableConfigurationProperties(StockLevelIndexProperties.class)
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private StockLevelIndex stockLevelIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM stock_checkpoints");
+        stockMovementRepository.deleteAll();
+        productRepository.deleteAll();
+        productRepository.save(createProduct("SKU001", 10));
+        productRepository.save(createProduct("SKU002", 5));
+    }
+
+    @Test
+    void flush_AppendsEveryMovementWithoutTouchingProducts() {
+        stockLedger.append("SKU001", StockMovementType.RESERVATION, -3);
+        stockLedger.append("SKU001", StockMovementType.RELEASE, 3);
+        stockLedger.append("SKU001", StockMovementType.RESTOCK, 5);
+
+        stockLedger.flush();
+
+        assertThat(movementsOf("SKU001"))
+                .containsExactly(
+                        tuple(StockMovementType.RESERVATION, -3),
+                        tuple(StockMovementType.RELEASE, 3),
+                        tuple(StockMovementType.RESTOCK, 5));
+        assertThat(quantityOf("SKU001")).isEqualTo(10);
+        assertThat(meterRegistry.get("oi.inventory.ledger.appended").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void checkpoint_FoldsEachMovementIntoAvailableQuantityOnce() {
+        Long version = productRepository.findBySku("SKU001").orElseThrow().getVersion();
+        stockLedger.append("SKU001", StockMovementType.RESERVATION, -3);
+        stockLedger.append("SKU002", StockMovementType.RESERVATION, -1);
+        stockLedger.append("SKU001", StockMovementType.RELEASE, 1);
+
+        stockLedger.checkpoint();
+        stockLedger.checkpoint();
+
+        assertThat(quantityOf("SKU001")).isEqualTo(8);
+        assertThat(quantityOf("SKU002")).isEqualTo(4);
+        assertThat(productRepository.findBySku("SKU001").orElseThrow().getVersion()).isEqualTo(version);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_checkpoints", Integer.class)).isEqualTo(1);
+        assertThat(stockLedger.recover()).isEmpty();
+        assertThat(stockMovementRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void append_InsideTransaction_IsWrittenWithItWithoutFlush() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            stockLedger.append("SKU001", StockMovementType.RESERVATION, -3);
+            stockLedger.appendOnCommit("SKU002", StockMovementType.RESTOCK, () -> 7, settled -> { });
+        });
+        transactionTemplate.executeWithoutResult(status -> {
+            stockLedger.append("SKU001", StockMovementType.RESERVATION, -4);
+            status.setRollbackOnly();
+        });
+
+        assertThat(movementsOf("SKU001")).containsExactly(tuple(StockMovementType.RESERVATION, -3));
+        assertThat(movementsOf("SKU002")).containsExactly(tuple(StockMovementType.RESTOCK, 7));
+        assertThat(stockLedger.recover()).containsExactlyInAnyOrderEntriesOf(Map.of("SKU001", 7, "SKU002", 12));
+    }
+
+    @Test
+    void checkpoint_FoldsMovementCommittedAfterOneWithAHigherId() {
+        stockLedger.append("SKU001", StockMovementType.RESERVATION, -3);
+        stockLedger.checkpoint();
+        long lowerId = jdbcTemplate.queryForObject("SELECT MIN(id) - 1 FROM stock_movements", Long.class);
+        jdbcTemplate.update("INSERT INTO stock_movements (id, sku, type, quantity, recorded_at) VALUES (?, ?, ?, ?, ?)",
+                lowerId, "SKU001", StockMovementType.RESERVATION.name(), -2, Timestamp.from(Instant.now()));
+
+        assertThat(stockLedger.recover()).containsExactlyEntriesOf(Map.of("SKU001", 5));
+        stockLedger.checkpoint();
+
+        assertThat(quantityOf("SKU001")).isEqualTo(5);
+        assertThat(stockLedger.recover()).isEmpty();
+    }
+
+    @Test
+    void restock_LeavesCounterAlone_WhenItsTransactionFailsToCommit() {
+        InMemoryStockReservationEngine reservationEngine = new InMemoryStockReservationEngine(productRepository,
+                stockLevelIndex, stockLedger, new SimpleMeterRegistry());
+        reservationEngine.reserve(Map.of("SKU001", 3));
+        stockLedger.flush();
+
+        assertThatThrownBy(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Product product = productRepository.findBySku("SKU001").orElseThrow();
+            // a concurrent update, so the flush at commit fails the optimistic check
+            jdbcTemplate.update("UPDATE products SET version = version + 1 WHERE sku = ?", "SKU001");
+            product.setName("Restocked");
+            reservationEngine.restock("SKU001", 500);
+            productRepository.save(product);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(7);
+        assertThat(stockLevelIndex.quantity("SKU001")).isEqualTo(7);
+        assertThat(movementsOf("SKU001")).containsExactly(tuple(StockMovementType.RESERVATION, -3));
+        assertThat(stockLedger.recover()).containsExactlyEntriesOf(Map.of("SKU001", 7));
+    }
+
+    @Test
+    void recover_ReplaysMovementsAfterLatestCheckpointOnRestart() {
+        stockLedger.append("SKU001", StockMovementType.RESERVATION, -3);
+        stockLedger.checkpoint();
+        stockLedger.append("SKU001", StockMovementType.RESERVATION, -2);
+        stockLedger.append("SKU002", StockMovementType.RESTOCK, 10);
+        stockLedger.flush();
+
+        StockLedger restarted = new StockLedger(jdbcTemplate, transactionManager, new SimpleMeterRegistry());
+        InMemoryStockReservationEngine reservationEngine = new InMemoryStockReservationEngine(productRepository,
+                stockLevelIndex, restarted, new SimpleMeterRegistry());
+        reservationEngine.recover();
+
+        assertThat(restarted.recover()).containsExactlyInAnyOrderEntriesOf(Map.of("SKU001", 5, "SKU002", 15));
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(5);
+        assertThat(reservationEngine.trackedQuantity("SKU002")).isEqualTo(15);
+        assertThat(stockLevelIndex.quantity("SKU002")).isEqualTo(15);
+        assertThat(quantityOf("SKU001")).isEqualTo(7);
+    }
+
+    private List<Tuple> movementsOf(String sku) {
+        return jdbcTemplate.query("SELECT type, quantity FROM stock_movements WHERE sku = ? ORDER BY id",
+                (rs, row) -> tuple(StockMovementType.valueOf(rs.getString(1)), rs.getInt(2)), sku);
+    }
+
+    private int quantityOf(String sku) {
+        return productRepository.findBySku(sku).orElseThrow().getAvailableQuantity();
+    }
+}
@@ -0,0 +1,172 @@
+package com.itccompliance.oi.domain.inventory;
+
+import com.itccompliance.oi.config.StockLevelIndexProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLevelIndexTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockLevelIndex index;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        index = new StockLevelIndex(jdbcTemplate, eventPublisher, new StockLevelIndexProperties(List.of(5)),
+                meterRegistry);
+    }
+
+    @Test
+    void skusAtOrBelow_ReturnsLowestQuantityFirst() {
+        index.update("A", () -> 8);
+        index.update("B", () -> 2);
+        index.update("C", () -> 20);
+        index.update("D", () -> 8);
+
+        assertThat(index.skusAtOrBelow(8)).containsExactly("B", "A", "D");
+        assertThat(index.skusAtOrBelow(1)).isEmpty();
+    }
+
+    @Test
+    void update_MovesSkuWithinTheOrdering() {
+        index.update("A", () -> 3);
+        index.update("B", () -> 4);
+
+        index.update("A", () -> 10);
+
+        assertThat(index.skusAtOrBelow(10)).containsExactly("B", "A");
+        assertThat(index.quantity("A")).isEqualTo(10);
+    }
+
+    @Test
+    void adjust_AppliesDeltaAndIgnoresUnknownSkus() {
+        index.update("A", () -> 10);
+
+        index.adjust("A", -4);
+        index.adjust("MISSING", -1);
+
+        assertThat(index.quantity("A")).isEqualTo(6);
+        assertThat(index.quantity("MISSING")).isNull();
+    }
+
+    @Test
+    void update_PublishesLowAndReplenishedCrossings() {
+        index.update("A", () -> 10);
+        index.update("A", () -> 5);
+        index.update("A", () -> 3);
+        index.update("A", () -> 6);
+
+        verify(eventPublisher).publishEvent(new StockWatermarkCrossedEvent("A", 5, 5, true));
+        verify(eventPublisher).publishEvent(new StockWatermarkCrossedEvent("A", 5, 6, false));
+        verifyNoMoreInteractions(eventPublisher);
+        assertThat(meterRegistry.counter("oi.stock.watermark.crossings", "direction", "low").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("oi.stock.watermark.crossings", "direction", "replenished").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void update_KeepsQuantity_WhenListenerThrows() {
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(Object.class));
+        index.update("A", () -> 10);
+
+        index.update("A", () -> 3);
+
+        assertThat(index.quantity("A")).isEqualTo(3);
+        assertThat(index.skusAtOrBelow(5)).containsExactly("A");
+    }
+
+    @Test
+    void adjust_FromManyThreads_LeavesTotalAndOrderingConsistent() throws Exception {
+        index.update("A", () -> 1000);
+        index.update("B", () -> 500);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    index.adjust("A", -1);
+                    index.skusAtOrBelow(500);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(index.quantity("A")).isEqualTo(200);
+        assertThat(index.skusAtOrBelow(500)).containsExactly("A", "B");
+    }
+
+    @Test
+    void registerWatermark_AppliesToLaterUpdates() {
+        index.update("A", () -> 100);
+        index.registerWatermark(50);
+
+        index.update("A", () -> 40);
+        index.unregisterWatermark(50);
+        index.update("A", () -> 60);
+
+        verify(eventPublisher).publishEvent(new StockWatermarkCrossedEvent("A", 50, 40, true));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void load_IndexesEveryProductWithoutPublishing() throws Exception {
+        ResultSet row = mock(ResultSet.class);
+        when(row.getString("sku")).thenReturn("A", "B");
+        when(row.getInt("available_quantity")).thenReturn(1, 7);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row);
+            handler.processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+
+        index.load();
+
+        assertThat(index.skusAtOrBelow(10)).containsExactly("A", "B");
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void skusAtOrBelow_SpansManyChunks() {
+        for (int i = 0; i < 2_000; i++) {
+            int quantity = (i * 7919) % 2_000;
+            index.update("SKU" + i, () -> quantity);
+        }
+
+        List<String> lowest = index.skusAtOrBelow(9);
+
+        assertThat(lowest).hasSize(10);
+        assertThat(lowest).extracting(index::quantity).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+}
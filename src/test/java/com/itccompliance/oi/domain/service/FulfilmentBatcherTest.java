@@ -0,0 +1,163 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentBatchProperties;
+import com.itccompliance.oi.config.FulfilmentLagProperties;
+import com.itccompliance.oi.config.OrderVersionsProperties;
+import com.itccompliance.oi.diagnostics.FulfilmentTransitionEvent;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderRepository.ReservedOrder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FulfilmentBatcherTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private FulfilmentOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusCounters statusCounters;
+    private FulfilmentBatcher fulfilmentBatcher;
+    private final List<List<Long>> flushed = Collections.synchronizedList(new ArrayList<>());
+    private final List<Long> drained = Collections.synchronizedList(new ArrayList<>());
+    private volatile Predicate<Long> reserved = id -> true;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statusCounters = new OrderStatusCounters(orderRepository, meterRegistry);
+        fulfilmentBatcher = new FulfilmentBatcher(orderRepository, outboxRepository, statusCounters,
+                new OrderVersions(new OrderVersionsProperties(100)),
+                new FulfilmentLag(orderRepository, new FulfilmentLagProperties(List.of(Duration.ofSeconds(1))),
+                        meterRegistry),
+                transactionManager, new FulfilmentBatchProperties(10, Duration.ofMillis(20), 1_000), meterRegistry);
+
+        when(orderRepository.findReservedByIdInAndStatus(anyCollection(), eq(OrderStatus.RESERVED)))
+                .thenAnswer(invocation -> {
+                    Collection<Long> ids = invocation.getArgument(0);
+                    Instant reservedAt = Instant.now().minusMillis(200);
+                    return ids.stream().filter(reserved).map(id -> reservedOrder(id, reservedAt)).toList();
+                });
+        when(orderRepository.markFulfilled(anyCollection(), any(Instant.class)))
+                .thenAnswer(invocation -> {
+                    Collection<Long> ids = invocation.getArgument(0);
+                    flushed.add(List.copyOf(ids));
+                    return (int) ids.stream().filter(reserved).count();
+                });
+        when(outboxRepository.deleteByOrderIds(anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<Long> orderIds = invocation.getArgument(0);
+                    drained.addAll(orderIds);
+                    return orderIds.size();
+                });
+        fulfilmentBatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        fulfilmentBatcher.stop();
+    }
+
+    @Test
+    void submit_FlushesFullBatchesInOneUpdateEach() throws Exception {
+        for (long id = 1; id <= 35; id++) {
+            fulfilmentBatcher.submit(id);
+        }
+        fulfilmentBatcher.stop();
+
+        assertThat(flushed).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(10));
+        assertThat(flushed.stream().mapToInt(List::size).sum()).isEqualTo(35);
+        assertThat(flushed.size()).isLessThan(35);
+        assertThat(meterRegistry.get("oi.fulfilment.batch.rows").summary().totalAmount()).isEqualTo(35);
+        assertThat(meterRegistry.get("oi.fulfilment.batch.flush").timer().count()).isEqualTo(flushed.size());
+        assertThat(meterRegistry.get("oi.fulfilment.outbox.drained").counter().count()).isEqualTo(35);
+        assertThat(statusCounters.count(OrderStatus.FULFILLED)).isEqualTo(35);
+        assertThat(meterRegistry.get("oi.fulfilment.lag").timer().count()).isEqualTo(35);
+    }
+
+    @Test
+    void submit_FlushesPartialBatchAfterMaxDelay() throws Exception {
+        fulfilmentBatcher.submit(1L);
+        fulfilmentBatcher.submit(2L);
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (drained.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(flushed).containsExactly(List.of(1L, 2L));
+        assertThat(meterRegistry.get("oi.fulfilment.batch.size").summary().max()).isEqualTo(2);
+        verify(orderRepository, times(1)).markFulfilled(any(), any());
+        assertThat(drained).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void flush_RecordsFulfilledEventForEachReservedOrderOnly() throws Exception {
+        reserved = id -> id % 2 == 0;
+        Path dump = Files.createTempFile("fulfilment", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FulfilmentTransitionEvent.class);
+            recording.start();
+            for (long id = 1; id <= 6; id++) {
+                fulfilmentBatcher.submit(id);
+            }
+            fulfilmentBatcher.stop();
+            recording.stop();
+            recording.dump(dump);
+
+            assertThat(RecordingFile.readAllEvents(dump))
+                    .filteredOn(event -> event.getEventType().getName().equals("com.itccompliance.oi.FulfilmentTransition"))
+                    .allSatisfy(event -> assertThat(event.getString("transition")).isEqualTo("fulfilled"))
+                    .extracting(event -> event.getLong("orderId"))
+                    .containsExactlyInAnyOrder(2L, 4L, 6L);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+        assertThat(statusCounters.count(OrderStatus.FULFILLED)).isEqualTo(3);
+    }
+
+    private static ReservedOrder reservedOrder(Long id, Instant reservedAt) {
+        return new ReservedOrder() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getReservedAt() {
+                return reservedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentLagProperties;
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderRepository.ReservedOrder;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+
+@DataJpaTest
+class FulfilmentLagTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FulfilmentLag fulfilmentLag;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fulfilmentLag = new FulfilmentLag(orderRepository,
+                new FulfilmentLagProperties(List.of(Duration.ofMillis(250), Duration.ofSeconds(1))), meterRegistry);
+    }
+
+    @Test
+    void record_CountsEachOrderInItsSloBucket() {
+        Instant fulfilledAt = Instant.now();
+
+        fulfilmentLag.record(List.of(reserved(1L, fulfilledAt.minusMillis(100)), reserved(2L, fulfilledAt.minusMillis(200)),
+                reserved(3L, fulfilledAt.minusMillis(600)), reserved(4L, fulfilledAt.minusSeconds(3)),
+                reserved(5L, null)), fulfilledAt);
+
+        Timer lag = meterRegistry.get("oi.fulfilment.lag").timer();
+        assertThat(lag.count()).isEqualTo(4);
+        assertThat(lag.takeSnapshot().histogramCounts())
+                .extracting(CountAtBucket::bucket, CountAtBucket::count)
+                .containsExactly(
+                        tuple((double) TimeUnit.MILLISECONDS.toNanos(250), 2.0),
+                        tuple((double) TimeUnit.SECONDS.toNanos(1), 3.0));
+    }
+
+    @Test
+    void oldestUnfulfilledAge_IsAgeOfOldestReservedOrder() {
+        Instant now = Instant.now();
+        orderRepository.save(order(OrderStatus.RESERVED, now.minus(5, ChronoUnit.MINUTES)));
+        orderRepository.save(order(OrderStatus.RESERVED, now.minus(1, ChronoUnit.MINUTES)));
+        orderRepository.save(order(OrderStatus.FULFILLED, now.minus(1, ChronoUnit.HOURS)));
+        orderRepository.save(order(OrderStatus.RESERVED, null));
+        orderRepository.flush();
+
+        assertThat(fulfilmentLag.oldestUnfulfilledAge()).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(6));
+        assertThat(meterRegistry.get("oi.fulfilment.oldest.unfulfilled.age").timeGauge().value(TimeUnit.MINUTES))
+                .isBetween(5.0, 6.0);
+    }
+
+    @Test
+    void oldestUnfulfilledAge_IsZeroWithoutReservedOrders() {
+        orderRepository.save(order(OrderStatus.FULFILLED, Instant.now().minus(1, ChronoUnit.HOURS)));
+
+        assertThat(fulfilmentLag.oldestUnfulfilledAge()).isZero();
+    }
+
+    @Test
+    void markFulfilled_StampsOnlyReservedOrders() {
+        Instant reservedAt = Instant.now().minusSeconds(2);
+        Order reserved = orderRepository.save(order(OrderStatus.RESERVED, reservedAt));
+        Order created = orderRepository.save(order(OrderStatus.NEW, reservedAt));
+        orderRepository.flush();
+        List<Long> ids = List.of(reserved.getId(), created.getId());
+
+        List<ReservedOrder> lagFrom = orderRepository.findReservedByIdInAndStatus(ids, OrderStatus.RESERVED);
+        int fulfilled = orderRepository.markFulfilled(ids, Instant.now());
+
+        assertThat(fulfilled).isEqualTo(1);
+        assertThat(lagFrom).singleElement().satisfies(order -> {
+            assertThat(order.getId()).isEqualTo(reserved.getId());
+            assertThat(order.getReservedAt()).isCloseTo(reservedAt, within(1, ChronoUnit.MILLIS));
+        });
+    }
+
+    private static ReservedOrder reserved(Long id, Instant reservedAt) {
+        return new ReservedOrder() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getReservedAt() {
+                return reservedAt;
+            }
+        };
+    }
+
+    private static Order order(OrderStatus status, Instant reservedAt) {
+        Order order = new Order();
+        order.setCustomerEmail("lag@example.com");
+        order.setStatus(status);
+        order.setReservedAt(reservedAt);
+        order.setItems(List.of());
+        return order;
+    }
+}
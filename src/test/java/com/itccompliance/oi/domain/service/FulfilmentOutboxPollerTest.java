@@ -0,0 +1,141 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.FulfilmentOutboxProperties;
+import com.itccompliance.oi.domain.model.FulfilmentOutboxEntry;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FulfilmentOutboxPollerTest {
+
+    @Autowired
+    private FulfilmentOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final FulfilmentService fulfilmentService = mock(FulfilmentService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void poll_DispatchesEachEntryOnceWhileLeased() {
+        outboxRepository.save(new FulfilmentOutboxEntry(1L, Instant.now()));
+        outboxRepository.save(new FulfilmentOutboxEntry(2L, Instant.now()));
+        FulfilmentOutboxPoller poller = poller(Duration.ofSeconds(30));
+
+        poller.poll();
+        poller.poll();
+
+        verify(fulfilmentService).dispatch(1L);
+        verify(fulfilmentService).dispatch(2L);
+        verifyNoMoreInteractions(fulfilmentService);
+        assertThat(outboxRepository.findAll()).allSatisfy(entry -> {
+            assertThat(entry.getClaimedUntil()).isAfter(Instant.now());
+            assertThat(entry.getAttempts()).isEqualTo(1);
+        });
+        assertThat(meterRegistry.get("oi.fulfilment.outbox.claimed").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("oi.fulfilment.outbox.lag").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void poll_DrainsMoreThanOneBatchPerRun() {
+        for (long orderId = 1; orderId <= 7; orderId++) {
+            outboxRepository.save(new FulfilmentOutboxEntry(orderId, Instant.now()));
+        }
+
+        poller(Duration.ofSeconds(30)).poll();
+
+        verify(fulfilmentService, times(7)).dispatch(anyLong());
+    }
+
+    @Test
+    void poll_RedeliversEntryOnceLeaseExpires() {
+        outboxRepository.save(new FulfilmentOutboxEntry(1L, Instant.now()));
+        FulfilmentOutboxPoller poller = poller(Duration.ZERO);
+
+        poller.poll();
+        poller.poll();
+
+        verify(fulfilmentService, times(2)).dispatch(1L);
+        assertThat(meterRegistry.get("oi.fulfilment.outbox.redelivered").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void poll_ReleasesUndispatchedClaims_WhenExecutorIsFull() {
+        outboxRepository.save(new FulfilmentOutboxEntry(1L, Instant.now()));
+        outboxRepository.save(new FulfilmentOutboxEntry(2L, Instant.now()));
+        doNothing().doThrow(new TaskRejectedException("full")).when(fulfilmentService).dispatch(anyLong());
+
+        poller(Duration.ofSeconds(30)).poll();
+
+        assertThat(outboxRepository.findAll())
+                .filteredOn(entry -> entry.getOrderId() == 2L)
+                .singleElement()
+                .satisfies(entry -> assertThat(entry.getClaimedUntil()).isNull());
+    }
+
+    @Test
+    void poll_SkipsEntriesLockedByAnotherPoller() throws Exception {
+        outboxRepository.save(new FulfilmentOutboxEntry(1L, Instant.now()));
+        outboxRepository.save(new FulfilmentOutboxEntry(2L, Instant.now()));
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService otherPoller = Executors.newSingleThreadExecutor();
+        otherPoller.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM fulfilment_outbox WHERE order_id = 1 FOR UPDATE");
+            locked.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        try {
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+            poller(Duration.ofSeconds(30)).poll();
+        } finally {
+            release.countDown();
+            otherPoller.shutdown();
+            otherPoller.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        verify(fulfilmentService).dispatch(2L);
+        verifyNoMoreInteractions(fulfilmentService);
+    }
+
+    private FulfilmentOutboxPoller poller(Duration lease) {
+        return new FulfilmentOutboxPoller(jdbcTemplate, transactionManager, outboxRepository, fulfilmentService,
+                new FulfilmentOutboxProperties(Duration.ofMillis(10), 3, lease), meterRegistry);
+    }
+}
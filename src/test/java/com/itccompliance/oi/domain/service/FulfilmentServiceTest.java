@@ -1,56 +1,80 @@
 package com.itccompliance.oi.domain.service;
 
-import com.itccompliance.oi.domain.model.Order;
-import com.itccompliance.oi.domain.model.OrderStatus;
-import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.config.PhaseMetricsProperties;
+import com.itccompliance.oi.domain.concurrency.BoundedTaskExecutor;
+import com.itccompliance.oi.domain.model.FulfilmentOutboxEntry;
+import com.itccompliance.oi.persistence.FulfilmentOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Optional;
+import java.time.Duration;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class FulfilmentServiceTest {
 
     @Mock
-    private OrderRepository orderRepository;
+    private FulfilmentOutboxRepository outboxRepository;
 
-    @InjectMocks
+    @Mock
+    private BoundedTaskExecutor fulfilmentExecutor;
+
+    @Mock
+    private FulfilmentBatcher fulfilmentBatcher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private FulfilmentService fulfilmentService;
 
+    @BeforeEach
+    void setUp() {
+        fulfilmentService = new FulfilmentService(outboxRepository, fulfilmentExecutor, fulfilmentBatcher,
+                new PhaseMetricsProperties(true), meterRegistry);
+    }
+
     @Test
-    void processFulfilment_ShouldUpdateOrderStatusToFulfilled() throws Exception {
+    void processFulfilment_ShouldWriteOutboxEntryWithoutDispatching() {
         Long orderId = 100L;
-        Order order = new Order();
-        order.setId(orderId);
-        order.setStatus(OrderStatus.RESERVED);
-
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
 
         fulfilmentService.processFulfilment(orderId);
 
-        Thread.sleep(500);
-
-        verify(orderRepository).findById(orderId);
+        ArgumentCaptor<FulfilmentOutboxEntry> entry = ArgumentCaptor.forClass(FulfilmentOutboxEntry.class);
+        verify(outboxRepository).save(entry.capture());
+        assertThat(entry.getValue().getOrderId()).isEqualTo(orderId);
+        assertThat(entry.getValue().getCreatedAt()).isNotNull();
+        assertThat(entry.getValue().getClaimedUntil()).isNull();
+        verifyNoInteractions(fulfilmentExecutor, fulfilmentBatcher);
+        assertThat(phaseCount("enqueue")).isEqualTo(1);
     }
 
     @Test
-    void processFulfilment_ShouldThrowException_WhenOrderNotFound() throws Exception {
-        Long orderId = 999L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+    void dispatch_ShouldHandOrderToBatcherAfterDelay() {
+        Long orderId = 100L;
+
+        fulfilmentService.dispatch(orderId);
 
-        IllegalStateException exception = assertThrows(
-                IllegalStateException.class,
-                () -> fulfilmentService.processFulfilment(orderId)
-        );
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Duration> delay = ArgumentCaptor.forClass(Duration.class);
+        verify(fulfilmentExecutor).schedule(task.capture(), delay.capture());
+        assertThat(delay.getValue()).isBetween(Duration.ofMillis(100), Duration.ofMillis(300));
+        verify(fulfilmentBatcher, never()).submit(any());
+        assertThat(phaseCount("schedule")).isEqualTo(1);
+        assertThat(phaseCount("handoff")).isZero();
+
+        task.getValue().run();
+
+        verify(fulfilmentBatcher).submit(orderId);
+        assertThat(phaseCount("handoff")).isEqualTo(1);
+    }
 
-        assertThat(exception.getMessage()).contains("Order not found: 999");
-        verify(orderRepository).findById(orderId);
+    private long phaseCount(String phase) {
+        return meterRegistry.get("oi.fulfilment.phase").tag("phase", phase).timer().count();
     }
-}
\ No newline at end of file
+}
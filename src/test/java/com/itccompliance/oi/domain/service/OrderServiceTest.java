@@ -1,27 +1,41 @@
 package com.itccompliance.oi.domain.service;
 
+import com.itccompliance.oi.api.dto.CreateOrderRequest;
 import com.itccompliance.oi.api.dto.OrderItemRequest;
+import com.itccompliance.oi.config.OrderGroupCommitProperties;
+import com.itccompliance.oi.config.OrderVersionsProperties;
+import com.itccompliance.oi.config.PhaseMetricsProperties;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryExecutor;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryProperties;
 import com.itccompliance.oi.domain.exception.InsufficientStockException;
 import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.inventory.InMemoryStockReservationEngine;
+import com.itccompliance.oi.domain.inventory.StockLedger;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
 import com.itccompliance.oi.domain.model.Order;
 import com.itccompliance.oi.domain.model.OrderStatus;
 import com.itccompliance.oi.domain.model.Product;
 import com.itccompliance.oi.persistence.OrderRepository;
+import com.itccompliance.oi.persistence.OrderStreamRepository;
 import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -30,13 +44,29 @@ class OrderServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private StockLevelIndex stockLevelIndex;
+
+    @Mock
+    private StockLedger stockLedger;
+
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private OrderStreamRepository orderStreamRepository;
+
     @Mock
     private FulfilmentService fulfilmentService;
 
-    @InjectMocks
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InMemoryStockReservationEngine reservationEngine;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderStatusCounters statusCounters;
+    private OrderVersions orderVersions;
     private OrderService orderService;
 
     private Product product1;
@@ -57,6 +87,18 @@ class OrderServiceTest {
         product2.setName("Product 2");
         product2.setPrice(new BigDecimal("29.99"));
         product2.setAvailableQuantity(5);
+
+        reservationEngine = new InMemoryStockReservationEngine(productRepository, stockLevelIndex, stockLedger,
+                new SimpleMeterRegistry());
+        ConflictRetryExecutor retryExecutor = new ConflictRetryExecutor(transactionManager,
+                new ConflictRetryProperties(5, Duration.ofMillis(2), Duration.ofMillis(100), 0.2, 100, 16),
+                new SimpleMeterRegistry());
+        statusCounters = new OrderStatusCounters(orderRepository, new SimpleMeterRegistry());
+        orderVersions = new OrderVersions(new OrderVersionsProperties(100));
+        orderService = new OrderService(reservationEngine, orderRepository, orderStreamRepository,
+                fulfilmentService, retryExecutor, statusCounters, orderVersions,
+                new OrderGroupCommitProperties(false, 64, Duration.ofNanos(500_000), 10_000),
+                new PhaseMetricsProperties(true), meterRegistry);
     }
 
     @Test
@@ -67,8 +109,7 @@ class OrderServiceTest {
                 new OrderItemRequest("SKU002", 2)
         );
 
-        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product1));
-        when(productRepository.findBySku("SKU002")).thenReturn(Optional.of(product2));
+        when(productRepository.findBySkuIn(List.of("SKU001", "SKU002"))).thenReturn(List.of(product1, product2));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(100L);
@@ -83,12 +124,13 @@ class OrderServiceTest {
         assertThat(order.getStatus()).isEqualTo(OrderStatus.RESERVED);
         assertThat(order.getItems()).hasSize(2);
 
-        assertThat(product1.getAvailableQuantity()).isEqualTo(7);
-        assertThat(product2.getAvailableQuantity()).isEqualTo(3);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(7);
+        assertThat(reservationEngine.trackedQuantity("SKU002")).isEqualTo(3);
 
-        verify(productRepository, times(2)).save(any(Product.class));
+        verify(productRepository, never()).save(any(Product.class));
 
         verify(fulfilmentService).processFulfilment(100L);
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isEqualTo(1);
     }
 
     @Test
@@ -98,17 +140,35 @@ class OrderServiceTest {
                 new OrderItemRequest("SKU001", 15)
         );
 
-        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product1));
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(product1));
 
         assertThatThrownBy(() -> orderService.createOrder(customerEmail, items))
                 .isInstanceOf(InsufficientStockException.class)
                 .hasMessageContaining("SKU001");
 
-        verify(productRepository, never()).save(any(Product.class));
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(10);
         verify(orderRepository, never()).save(any(Order.class));
         verify(fulfilmentService, never()).processFulfilment(any());
     }
 
+    @Test
+    void createOrder_ShouldReleaseEarlierLines_WhenLaterLineHasInsufficientStock() {
+        List<OrderItemRequest> items = List.of(
+                new OrderItemRequest("SKU001", 3),
+                new OrderItemRequest("SKU002", 6)
+        );
+
+        when(productRepository.findBySkuIn(List.of("SKU001", "SKU002"))).thenReturn(List.of(product1, product2));
+
+        assertThatThrownBy(() -> orderService.createOrder("test@example.com", items))
+                .isInstanceOf(InsufficientStockException.class)
+                .hasMessageContaining("SKU002");
+
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(10);
+        assertThat(reservationEngine.trackedQuantity("SKU002")).isEqualTo(5);
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
     @Test
     void createOrder_ShouldThrowProductNotFoundException_WhenProductNotFound() {
         String customerEmail = "test@example.com";
@@ -116,16 +176,60 @@ class OrderServiceTest {
                 new OrderItemRequest("NONEXISTENT", 1)
         );
 
-        when(productRepository.findBySku("NONEXISTENT")).thenReturn(Optional.empty());
+        when(productRepository.findBySkuIn(List.of("NONEXISTENT"))).thenReturn(List.of());
 
         assertThatThrownBy(() -> orderService.createOrder(customerEmail, items))
                 .isInstanceOf(ProductNotFoundException.class)
                 .hasMessageContaining("NONEXISTENT");
 
-        verify(productRepository, never()).save(any(Product.class));
         verify(orderRepository, never()).save(any(Order.class));
     }
 
+    @Test
+    void createOrder_TimesEachPhaseAndTheOutcome() {
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(product1));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(100L);
+            return order;
+        });
+
+        orderService.createOrder("test@example.com", List.of(new OrderItemRequest("SKU001", 3)));
+        assertThatThrownBy(() -> orderService.createOrder("test@example.com",
+                List.of(new OrderItemRequest("SKU001", 8)))).isInstanceOf(InsufficientStockException.class);
+
+        assertThat(meterRegistry.get("oi.order.create").tag("outcome", "created").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("oi.order.create").tag("outcome", "insufficient_stock").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("oi.order.create.phase").tag("phase", "reserve").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("oi.order.create.phase").tag("phase", "save").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("oi.order.create.phase").tag("phase", "dispatch").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void createOrder_RegistersNoTimers_WhenPhaseMetricsDisabled() {
+        SimpleMeterRegistry disabledRegistry = new SimpleMeterRegistry();
+        OrderService untimed = new OrderService(reservationEngine, orderRepository, orderStreamRepository,
+                fulfilmentService, new ConflictRetryExecutor(transactionManager,
+                        new ConflictRetryProperties(5, Duration.ofMillis(2), Duration.ofMillis(100), 0.2, 100, 16),
+                        disabledRegistry),
+                statusCounters, orderVersions,
+                new OrderGroupCommitProperties(false, 64, Duration.ofNanos(500_000), 10_000),
+                new PhaseMetricsProperties(false), disabledRegistry);
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(product1));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(100L);
+            return order;
+        });
+
+        untimed.createOrder("test@example.com", List.of(new OrderItemRequest("SKU001", 3)));
+
+        assertThat(disabledRegistry.find("oi.order.create").timers()).isEmpty();
+        assertThat(disabledRegistry.find("oi.order.create.phase").timers()).isEmpty();
+        assertThat(disabledRegistry.find("oi.order.batch.phase").timers()).isEmpty();
+    }
+
     @Test
     void createOrder_ShouldHandleMultipleItemsCorrectly() {
         String customerEmail = "test@example.com";
@@ -134,7 +238,7 @@ class OrderServiceTest {
                 new OrderItemRequest("SKU001", 2)
         );
 
-        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product1));
+        when(productRepository.findBySkuIn(List.of("SKU001"))).thenReturn(List.of(product1));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
             order.setId(100L);
@@ -146,7 +250,43 @@ class OrderServiceTest {
         assertThat(order).isNotNull();
         assertThat(order.getItems()).hasSize(2);
 
-        assertThat(product1.getAvailableQuantity()).isEqualTo(7);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(7);
+        verify(productRepository, times(1)).findBySkuIn(List.of("SKU001"));
+    }
+
+    @Test
+    void createOrders_SavesAcceptedOrdersTogetherAndReportsEachRejection() {
+        when(productRepository.findBySkuIn(List.of("MISSING", "SKU001", "SKU002")))
+                .thenReturn(List.of(product1, product2));
+        when(orderRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Order> orders = invocation.getArgument(0);
+            for (int i = 0; i < orders.size(); i++) {
+                orders.get(i).setId(200L + i);
+            }
+            return orders;
+        });
+
+        List<OrderOutcome> outcomes = orderService.createOrders(List.of(
+                new CreateOrderRequest("a@example.com", List.of(new OrderItemRequest("SKU002", 4))),
+                new CreateOrderRequest("b@example.com", List.of(new OrderItemRequest("SKU002", 2))),
+                new CreateOrderRequest("c@example.com", List.of(new OrderItemRequest("MISSING", 1))),
+                new CreateOrderRequest("d@example.com", List.of(
+                        new OrderItemRequest("SKU001", 2), new OrderItemRequest("SKU001", 3)))));
+
+        assertThat(outcomes).extracting(OrderOutcome::isAccepted).containsExactly(true, false, false, true);
+        assertThat(outcomes.get(0).order().getId()).isEqualTo(200L);
+        assertThat(outcomes.get(1).rejection()).isInstanceOf(InsufficientStockException.class);
+        assertThat(outcomes.get(2).rejection()).isInstanceOf(ProductNotFoundException.class);
+        assertThat(outcomes.get(3).order().getId()).isEqualTo(201L);
+        assertThat(outcomes.get(3).order().getItems()).hasSize(2);
+        assertThat(reservationEngine.trackedQuantity("SKU001")).isEqualTo(5);
+        assertThat(reservationEngine.trackedQuantity("SKU002")).isEqualTo(1);
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isEqualTo(2);
+
+        verify(orderRepository, times(1)).saveAll(anyList());
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(fulfilmentService).processFulfilment(200L);
+        verify(fulfilmentService).processFulfilment(201L);
     }
 
     @Test
@@ -157,11 +297,31 @@ class OrderServiceTest {
         order.setCustomerEmail("test@example.com");
         order.setStatus(OrderStatus.RESERVED);
 
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithItemsById(orderId)).thenReturn(Optional.of(order));
 
         Order result = orderService.getOrder(orderId);
 
         assertThat(result).isEqualTo(order);
-        verify(orderRepository).findById(orderId);
+        assertThat(orderService.knownStatus(orderId)).isEqualTo(OrderStatus.RESERVED);
+        verify(orderRepository).findWithItemsById(orderId);
+    }
+
+    @Test
+    void getOrdersPage_ShouldStartFromFirstOrder_WhenNoCursorGiven() {
+        Order order = new Order();
+        order.setId(1L);
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(50))).thenReturn(List.of(order));
+
+        List<Order> page = orderService.getOrdersPage(null, null, 50);
+
+        assertThat(page).containsExactly(order);
+    }
+
+    @Test
+    void getOrdersPage_ShouldFilterByStatusAfterCursor() {
+        orderService.getOrdersPage(OrderStatus.FULFILLED, 42L, 10);
+
+        verify(orderRepository).findByStatusAndIdGreaterThanOrderByIdAsc(OrderStatus.FULFILLED, 42L, Limit.of(10));
+        verify(orderRepository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.domain.model.OrderStatus;
+import com.itccompliance.oi.persistence.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderStatusCountersTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusCounters statusCounters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statusCounters = new OrderStatusCounters(orderRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_LoadsCountsFromDatabase() {
+        when(orderRepository.countByStatus()).thenReturn(List.of(
+                statusCount(OrderStatus.RESERVED, 4), statusCount(OrderStatus.FULFILLED, 9)));
+
+        statusCounters.rebuild();
+
+        assertThat(statusCounters.snapshot())
+                .containsEntry(OrderStatus.NEW, 0L)
+                .containsEntry(OrderStatus.RESERVED, 4L)
+                .containsEntry(OrderStatus.FULFILLED, 9L);
+        assertThat(meterRegistry.get("oi.orders").tag("status", "FULFILLED").gauge().value()).isEqualTo(9);
+    }
+
+    @Test
+    void transitioned_MovesOrdersBetweenStatuses() {
+        statusCounters.created(OrderStatus.RESERVED);
+        statusCounters.created(OrderStatus.RESERVED);
+        statusCounters.created(OrderStatus.RESERVED);
+
+        statusCounters.transitioned(OrderStatus.RESERVED, OrderStatus.FULFILLED, 2);
+
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isEqualTo(1);
+        assertThat(statusCounters.count(OrderStatus.FULFILLED)).isEqualTo(2);
+    }
+
+    @Test
+    void created_InsideTransaction_CountsOnlyOnCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        statusCounters.created(OrderStatus.RESERVED);
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isEqualTo(1);
+    }
+
+    @Test
+    void created_InsideRolledBackTransaction_IsNotCounted() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        statusCounters.created(OrderStatus.RESERVED);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(statusCounters.count(OrderStatus.RESERVED)).isZero();
+    }
+
+    private static OrderRepository.StatusCount statusCount(OrderStatus status, long count) {
+        return new OrderRepository.StatusCount() {
+            @Override
+            public OrderStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.itccompliance.oi.domain.service;
+
+import com.itccompliance.oi.config.OrderVersionsProperties;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderVersionsTest {
+
+    private final OrderVersions orderVersions = new OrderVersions(new OrderVersionsProperties(100));
+
+    @Test
+    void record_RemembersStatusUntilInvalidated() {
+        orderVersions.record(1L, OrderStatus.RESERVED, orderVersions.generation());
+
+        assertThat(orderVersions.status(1L)).isEqualTo(OrderStatus.RESERVED);
+
+        orderVersions.invalidate(List.of(1L));
+
+        assertThat(orderVersions.status(1L)).isNull();
+    }
+
+    @Test
+    void record_DropsStatusReadBeforeARacingInvalidation() {
+        long generation = orderVersions.generation();
+        orderVersions.invalidate(List.of(1L));
+
+        orderVersions.record(1L, OrderStatus.RESERVED, generation);
+
+        assertThat(orderVersions.status(1L)).isNull();
+    }
+}
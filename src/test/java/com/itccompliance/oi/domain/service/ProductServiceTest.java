@@ -2,22 +2,33 @@ package com.itccompliance.oi.domain.service;
 
 import com.itccompliance.oi.api.dto.UpdateProductRequest;
 import com.itccompliance.oi.api.mapper.ProductMapper;
+import com.itccompliance.oi.config.ProductCacheProperties;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryExecutor;
+import com.itccompliance.oi.domain.concurrency.ConflictRetryProperties;
 import com.itccompliance.oi.domain.exception.ProductNotFoundException;
+import com.itccompliance.oi.domain.inventory.StockLevelIndex;
+import com.itccompliance.oi.domain.inventory.StockReservationEngine;
 import com.itccompliance.oi.domain.model.Product;
 import com.itccompliance.oi.persistence.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import static com.itccompliance.oi.support.TestProducts.createProduct;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,9 +40,28 @@ class ProductServiceTest {
     @Mock
     private ProductMapper productMapper;
 
-    @InjectMocks
+    @Mock
+    private StockReservationEngine reservationEngine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StockLevelIndex stockLevelIndex;
+
     private ProductService productService;
 
+    @BeforeEach
+    void setUp() {
+        ConflictRetryExecutor retryExecutor = new ConflictRetryExecutor(transactionManager,
+                new ConflictRetryProperties(5, Duration.ofMillis(2), Duration.ofMillis(100), 0.2, 100, 16),
+                new SimpleMeterRegistry());
+        ProductCatalogCache catalogCache = new ProductCatalogCache(productRepository,
+                new ProductCacheProperties(100, Duration.ofMinutes(1)), new SimpleMeterRegistry());
+        productService = new ProductService(productRepository, productMapper, reservationEngine, retryExecutor,
+                stockLevelIndex, catalogCache);
+    }
+
     @Test
     void create_Success() {
         Product product = createProduct("SKU001", 10);
@@ -42,6 +72,7 @@ class ProductServiceTest {
 
         assertThat(result).isEqualTo(product);
         verify(productRepository).save(product);
+        verify(stockLevelIndex).update(eq("SKU001"), any());
     }
 
     @Test
@@ -60,10 +91,53 @@ class ProductServiceTest {
     void getBySku_Success() {
         Product product = createProduct("SKU001", 10);
         when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product));
+        when(reservationEngine.trackedQuantity("SKU001")).thenReturn(null);
+        when(stockLevelIndex.quantity("SKU001")).thenReturn(10);
 
         Product result = productService.getBySku("SKU001");
 
-        assertThat(result).isEqualTo(product);
+        assertThat(result).usingRecursiveComparison().isEqualTo(product);
+    }
+
+    @Test
+    void getBySku_ReturnsLiveQuantity_WhenTrackedByReservationEngine() {
+        Product product = createProduct("SKU001", 10);
+        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product));
+        when(reservationEngine.trackedQuantity("SKU001")).thenReturn(4);
+
+        Product result = productService.getBySku("SKU001");
+
+        assertThat(result.getAvailableQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void getBySku_ServesCatalogDataFromCacheAndStockFromIndex() {
+        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(createProduct("SKU001", 10)));
+        when(reservationEngine.trackedQuantity("SKU001")).thenReturn(null);
+        when(stockLevelIndex.quantity("SKU001")).thenReturn(10, 6);
+
+        productService.getBySku("SKU001");
+        Product result = productService.getBySku("SKU001");
+
+        assertThat(result.getName()).isEqualTo("Test Product SKU001");
+        assertThat(result.getAvailableQuantity()).isEqualTo(6);
+        verify(productRepository, times(1)).findBySku("SKU001");
+    }
+
+    @Test
+    void updateProduct_EvictsCachedCatalogData() {
+        Product product = createProduct("SKU001", 10);
+        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product));
+        when(productRepository.save(product)).thenReturn(product);
+        when(reservationEngine.trackedQuantity("SKU001")).thenReturn(null);
+        when(stockLevelIndex.quantity("SKU001")).thenReturn(10);
+        productService.getBySku("SKU001");
+
+        product.setName("Renamed");
+        productService.updateProduct("SKU001", new UpdateProductRequest("Renamed", null, null));
+
+        assertThat(productService.getBySku("SKU001").getName()).isEqualTo("Renamed");
+        verify(productRepository, times(3)).findBySku("SKU001");
     }
 
     @Test
@@ -78,8 +152,8 @@ class ProductServiceTest {
     void findProductsBelowStockThreshold_Success() {
         Product lowStock = createProduct("LOW", 5);
 
-        when(productRepository.findByAvailableQuantityLessThanEqual(10))
-                .thenReturn(List.of(lowStock));
+        when(stockLevelIndex.skusAtOrBelow(10)).thenReturn(List.of("LOW"));
+        when(productRepository.findBySkuIn(List.of("LOW"))).thenReturn(List.of(lowStock));
 
         List<Product> result = productService.findProductsBelowStockThreshold(10);
 
@@ -87,14 +161,30 @@ class ProductServiceTest {
         assertThat(result.get(0).getSku()).isEqualTo("LOW");
     }
 
+    @Test
+    void findProductsBelowStockThreshold_KeepsIndexOrderAndLiveQuantities() {
+        Product fewer = createProduct("FEWER", 8);
+        Product fewest = createProduct("FEWEST", 9);
+
+        when(stockLevelIndex.skusAtOrBelow(10)).thenReturn(List.of("FEWEST", "FEWER"));
+        when(productRepository.findBySkuIn(List.of("FEWEST", "FEWER"))).thenReturn(List.of(fewer, fewest));
+        when(reservationEngine.trackedQuantity("FEWEST")).thenReturn(1);
+        when(reservationEngine.trackedQuantity("FEWER")).thenReturn(null);
+
+        List<Product> result = productService.findProductsBelowStockThreshold(10);
+
+        assertThat(result).extracting(Product::getSku).containsExactly("FEWEST", "FEWER");
+        assertThat(result).extracting(Product::getAvailableQuantity).containsExactly(1, 8);
+    }
+
     @Test
     void findProductsBelowStockThreshold_ReturnsEmpty() {
-        when(productRepository.findByAvailableQuantityLessThanEqual(5))
-                .thenReturn(List.of());
+        when(stockLevelIndex.skusAtOrBelow(5)).thenReturn(List.of());
 
         List<Product> result = productService.findProductsBelowStockThreshold(5);
 
         assertThat(result).isEmpty();
+        verify(productRepository, never()).findBySkuIn(any());
     }
 
     @Test
@@ -110,6 +200,24 @@ class ProductServiceTest {
         assertThat(result).isEqualTo(product);
         verify(productMapper).applyUpdateToProduct(request, product);
         verify(productRepository).save(product);
+        verify(reservationEngine).restock("SKU001", 20);
+    }
+
+    @Test
+    void updateProduct_RetriesAfterOptimisticLockConflict() {
+        Product product = createProduct("SKU001", 10);
+        UpdateProductRequest request = new UpdateProductRequest("New Name", null, null);
+
+        when(productRepository.findBySku("SKU001")).thenReturn(Optional.of(product));
+        when(productRepository.save(product))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L))
+                .thenReturn(product);
+
+        Product result = productService.updateProduct("SKU001", request);
+
+        assertThat(result).isEqualTo(product);
+        verify(productRepository, times(2)).findBySku("SKU001");
+        verify(productMapper, times(2)).applyUpdateToProduct(request, product);
     }
 
     @Test
@@ -136,14 +244,6 @@ class ProductServiceTest {
 
         verify(productMapper).applyUpdateToProduct(request, product);
         verify(productRepository).save(product);
-    }
-
-    private Product createProduct(String sku, int quantity) {
-        Product product = new Product();
-        product.setSku(sku);
-        product.setName("Test Product " + sku);
-        product.setPrice(new BigDecimal("99.99"));
-        product.setAvailableQuantity(quantity);
-        return product;
+        verify(reservationEngine, never()).restock(any(), anyInt());
     }
 }
\ No newline at end of file
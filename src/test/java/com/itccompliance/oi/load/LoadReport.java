@@ -0,0 +1,100 @@
+package com.itccompliance.oi.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies of one {@link OpenLoopLoadGenerator} run, one HdrHistogram per target in microseconds.
+ * {@link #write(Path)} saves a summary table and, per target, the full percentile distribution in
+ * the {@code .hgrm} format that HdrHistogram's plotter reads.
+ */
+final class LoadReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final int requestsPerSecond;
+    private final Duration warmUp;
+    private final Duration duration;
+    private volatile Duration maxSendLag = Duration.ZERO;
+
+    LoadReport(List<String> names, int requestsPerSecond, Duration warmUp, Duration duration) {
+        names.forEach(name -> endpoints.put(name, new Endpoint()));
+        this.requestsPerSecond = requestsPerSecond;
+        this.warmUp = warmUp;
+        this.duration = duration;
+    }
+
+    void record(String name, long latencyNanos, boolean succeeded) {
+        Endpoint endpoint = endpoints.get(name);
+        endpoint.latencies.recordValue(Math.max(1, latencyNanos / 1000));
+        if (!succeeded) {
+            endpoint.errors.increment();
+        }
+    }
+
+    void maxSendLag(Duration maxSendLag) {
+        this.maxSendLag = maxSendLag;
+    }
+
+    List<String> names() {
+        return List.copyOf(endpoints.keySet());
+    }
+
+    long count(String name) {
+        return endpoints.get(name).latencies.getTotalCount();
+    }
+
+    long errors(String name) {
+        return endpoints.get(name).errors.sum();
+    }
+
+    Duration percentile(String name, double percentile) {
+        return Duration.ofNanos(endpoints.get(name).latencies.getValueAtPercentile(percentile) * 1000);
+    }
+
+    String summary() {
+        StringBuilder summary = new StringBuilder()
+                .append(String.format("rate %d/s, warm-up %ss, measured %ss, max send lag %.3f ms%n",
+                        requestsPerSecond, warmUp.toSeconds(), duration.toSeconds(),
+                        maxSendLag.toNanos() / 1_000_000.0))
+                .append(String.format("%-14s %8s %7s %9s %9s %9s %9s %9s%n",
+                        "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        endpoints.forEach((name, endpoint) -> {
+            Histogram latencies = endpoint.latencies;
+            summary.append(String.format("%-14s %8d %7d", name, latencies.getTotalCount(), endpoint.errors.sum()));
+            for (double percentile : PERCENTILES) {
+                summary.append(String.format(" %9.3f", latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI));
+            }
+            summary.append(String.format(" %9.3f%n", latencies.getMaxValue() / MICROS_PER_MILLI));
+        });
+        return summary.toString();
+    }
+
+    /** Writes {@code summary.txt} and one {@code <target>.hgrm} per target into {@code directory}. */
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve("summary.txt"), summary());
+        for (Map.Entry<String, Endpoint> endpoint : endpoints.entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.getKey() + ".hgrm")))) {
+                endpoint.getValue().latencies.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static final class Endpoint {
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
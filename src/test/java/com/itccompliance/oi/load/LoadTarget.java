@@ -0,0 +1,29 @@
+package com.itccompliance.oi.load;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * One kind of request the {@link OpenLoopLoadGenerator} sends. {@code weight} is the target's share
+ * of the mix; a response with any status other than {@code expectedStatus} counts as an error, and
+ * successful responses are handed to {@code onSuccess}, e.g. to remember a created id.
+ */
+record LoadTarget(String name, int weight, Supplier<HttpRequest> request, int expectedStatus,
+                  Consumer<HttpResponse<String>> onSuccess) {
+
+    LoadTarget {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight of " + name + " must not be negative: " + weight);
+        }
+    }
+
+    LoadTarget(String name, int weight, Supplier<HttpRequest> request, int expectedStatus) {
+        this(name, weight, request, expectedStatus, response -> { });
+    }
+
+    LoadTarget withWeight(int weight) {
+        return new LoadTarget(name, weight, request, expectedStatus, onSuccess);
+    }
+}
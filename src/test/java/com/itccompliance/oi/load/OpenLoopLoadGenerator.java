@@ -0,0 +1,100 @@
+package com.itccompliance.oi.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed arrival rate, whatever the service's response times, and records the
+ * latency of each request from the moment it was scheduled to be sent.
+ * <p>
+ * A closed-loop client waits for a response before it sends the next request, so a stalled
+ * service also stalls the client and the requests that would have queued up behind the stall are
+ * never measured (coordinated omission). Here request {@code i} is due at {@code start + i / rate}
+ * and is sent asynchronously; when the generator itself falls behind, the delay counts against the
+ * request's latency rather than being dropped.
+ */
+final class OpenLoopLoadGenerator {
+
+    private final HttpClient client;
+    private final List<LoadTarget> targets;
+    private final int[] cumulativeWeights;
+    private final Random random;
+
+    OpenLoopLoadGenerator(HttpClient client, List<LoadTarget> targets, long seed) {
+        this.client = client;
+        this.targets = List.copyOf(targets);
+        this.cumulativeWeights = new int[targets.size()];
+        int total = 0;
+        for (int i = 0; i < targets.size(); i++) {
+            total += targets.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("at least one target needs a positive weight");
+        }
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Sends {@code requestsPerSecond} requests per second for {@code warmUp} plus {@code duration},
+     * waits for every response and returns the latencies of the requests due after the warm-up.
+     */
+    LoadReport run(int requestsPerSecond, Duration warmUp, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        LoadReport report = new LoadReport(targets.stream().map(LoadTarget::name).toList(),
+                requestsPerSecond, warmUp, duration);
+        List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmUp.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long maxSendLag = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            maxSendLag = Math.max(maxSendLag, System.nanoTime() - intended);
+
+            LoadTarget target = next();
+            boolean measured = intended >= measureFrom;
+            inFlight.add(client.sendAsync(target.request().get(), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, failure) -> {
+                        long latency = System.nanoTime() - intended;
+                        boolean succeeded = failure == null && response.statusCode() == target.expectedStatus();
+                        if (succeeded) {
+                            target.onSuccess().accept(response);
+                        }
+                        if (measured) {
+                            report.record(target.name(), latency, succeeded);
+                        }
+                        return null;
+                    }));
+        }
+
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).join();
+        report.maxSendLag(Duration.ofNanos(maxSendLag));
+        return report;
+    }
+
+    private LoadTarget next() {
+        int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return targets.get(i);
+            }
+        }
+        throw new IllegalStateException("no target for " + pick);
+    }
+}
@@ -0,0 +1,159 @@
+package com.itccompliance.oi.load;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Drives {@code POST /orders}, {@code GET /orders/{id}} and {@code GET /products/{sku}} at a fixed
+ * arrival rate against the service on a random port and fails when an endpoint answers with an
+ * unexpected status or its p99 latency exceeds the budget. The report is written to
+ * {@code load.report-dir}.
+ * <p>
+ * Runs in the {@code load} profile, which passes these system properties:
+ * <ul>
+ *     <li>{@code load.rate}: requests per second over all endpoints</li>
+ *     <li>{@code load.warm-up}, {@code load.duration}: unmeasured and measured run time</li>
+ *     <li>{@code load.mix}: relative weights, e.g. {@code create-order=1,get-order=2,get-product=7}</li>
+ *     <li>{@code load.p99-budget}: p99 budget of every endpoint, overridden per endpoint by
+ *     {@code load.p99-budget.<endpoint>}</li>
+ * </ul>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.root=WARN"
+})
+class OrderApiLoadIT {
+
+    private static final int PRODUCTS = 50;
+    private static final int SEED_ORDERS = 100;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Long> orderIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() throws Exception {
+        for (int i = 0; i < PRODUCTS; i++) {
+            HttpResponse<String> response = client.send(post("/products", """
+                    {"sku":"%s","name":"Load product %d","price":9.99,"availableQuantity":100000000}"""
+                    .formatted(sku(i), i)), HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(201);
+        }
+        Random random = new Random(1);
+        for (int i = 0; i < SEED_ORDERS; i++) {
+            HttpResponse<String> response = client.send(post("/orders", orderBody(random)),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).isEqualTo(201);
+            rememberOrder(response);
+        }
+    }
+
+    @Test
+    void orderApi_StaysWithinP99BudgetAtFixedArrivalRate() throws Exception {
+        List<LoadTarget> targets = mix(List.of(
+                new LoadTarget("create-order", 1,
+                        () -> post("/orders", orderBody(ThreadLocalRandom.current())), 201, this::rememberOrder),
+                new LoadTarget("get-order", 2, () -> get("/orders/" + randomOrderId()), 200),
+                new LoadTarget("get-product", 7,
+                        () -> get("/products/" + sku(ThreadLocalRandom.current().nextInt(PRODUCTS))), 200)));
+
+        LoadReport report = new OpenLoopLoadGenerator(client, targets, 42).run(
+                Integer.getInteger("load.rate", 50),
+                duration("load.warm-up", "5s"),
+                duration("load.duration", "20s"));
+        report.write(Path.of(System.getProperty("load.report-dir", "target/load")));
+        System.out.print(report.summary());
+
+        assertSoftly(softly -> {
+            for (String endpoint : report.names()) {
+                Duration budget = duration("load.p99-budget." + endpoint,
+                        System.getProperty("load.p99-budget", "250ms"));
+                softly.assertThat(report.errors(endpoint)).as("%s errors", endpoint).isZero();
+                softly.assertThat(report.percentile(endpoint, 99)).as("%s p99", endpoint)
+                        .isLessThanOrEqualTo(budget);
+            }
+        });
+    }
+
+    /** Applies the weights of {@code load.mix}; targets it does not name keep their default weight. */
+    private static List<LoadTarget> mix(List<LoadTarget> targets) {
+        Map<String, Integer> weights = new HashMap<>();
+        String mix = System.getProperty("load.mix", "");
+        for (String entry : mix.split(",")) {
+            if (!entry.isBlank()) {
+                String[] weight = entry.split("=", 2);
+                weights.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+            }
+        }
+        assertThat(targets.stream().map(LoadTarget::name)).as("targets named in load.mix")
+                .containsAll(weights.keySet());
+        return targets.stream()
+                .map(target -> target.withWeight(weights.getOrDefault(target.name(), target.weight())))
+                .toList();
+    }
+
+    private void rememberOrder(HttpResponse<String> response) {
+        String location = response.headers().firstValue("Location").orElseThrow();
+        Long id = Long.valueOf(location.substring(location.lastIndexOf('/') + 1));
+        synchronized (orderIds) {
+            orderIds.add(id);
+        }
+    }
+
+    private Long randomOrderId() {
+        synchronized (orderIds) {
+            return orderIds.get(ThreadLocalRandom.current().nextInt(orderIds.size()));
+        }
+    }
+
+    private static String orderBody(Random random) {
+        return """
+                {"customerEmail":"load@example.com","items":[{"sku":"%s","quantity":%d}]}"""
+                .formatted(sku(random.nextInt(PRODUCTS)), 1 + random.nextInt(3));
+    }
+
+    private static String sku(int i) {
+        return "LOAD-SKU-%03d".formatted(i);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path)).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,47 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.itccompliance.oi.support.TestProducts.createProduct;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class IdBlockAllocatorTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void next_HandsOutAWholeBlockPerSequenceValue() {
+        IdBlockAllocator allocator = new IdBlockAllocator(jdbcTemplate, "products_seq", Product.ID_BLOCK_SIZE);
+
+        long[] block = allocator.next(Product.ID_BLOCK_SIZE);
+
+        assertThat(block[Product.ID_BLOCK_SIZE - 1] - block[0]).isEqualTo(Product.ID_BLOCK_SIZE - 1);
+        assertThat(block[0] % Product.ID_BLOCK_SIZE).isEqualTo(1);
+    }
+
+    @Test
+    void next_NeverOverlapsIdsGeneratedThroughJpa() {
+        IdBlockAllocator allocator = new IdBlockAllocator(jdbcTemplate, "products_seq", Product.ID_BLOCK_SIZE);
+        Set<Long> ids = new HashSet<>();
+
+        for (int round = 0; round < 3; round++) {
+            ids.add(productRepository.saveAndFlush(createProduct("ALLOC-" + round, 1)).getId());
+            Arrays.stream(allocator.next(Product.ID_BLOCK_SIZE + 1)).forEach(ids::add);
+        }
+
+        assertThat(ids).hasSize(3 * (Product.ID_BLOCK_SIZE + 2));
+    }
+}
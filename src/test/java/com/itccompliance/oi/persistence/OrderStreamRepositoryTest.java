@@ -0,0 +1,80 @@
+package com.itccompliance.oi.persistence;
+
+import com.itccompliance.oi.domain.model.Order;
+import com.itccompliance.oi.domain.model.OrderItem;
+import com.itccompliance.oi.domain.model.OrderStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(OrderStreamRepository.class)
+class OrderStreamRepositoryTest {
+
+    @Autowired
+    private OrderStreamRepository orderStreamRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Order withItems;
+    private Order withoutItems;
+    private Order fulfilled;
+
+    @BeforeEach
+    void setUp() {
+        withItems = orderRepository.save(createOrder(OrderStatus.RESERVED, "SKU001", "SKU002"));
+        withoutItems = orderRepository.save(createOrder(OrderStatus.RESERVED));
+        fulfilled = orderRepository.save(createOrder(OrderStatus.FULFILLED, "SKU003"));
+        orderRepository.flush();
+    }
+
+    @Test
+    void forEach_RebuildsEachOrderWithItsItemsInIdOrder() {
+        List<Order> streamed = new ArrayList<>();
+
+        orderStreamRepository.forEach(null, streamed::add);
+
+        assertThat(streamed).extracting(Order::getId)
+                .containsExactly(withItems.getId(), withoutItems.getId(), fulfilled.getId());
+        assertThat(streamed.get(0).getItems()).extracting(OrderItem::getSku).containsExactly("SKU001", "SKU002");
+        assertThat(streamed.get(0).getCustomerEmail()).isEqualTo("stream@example.com");
+        assertThat(streamed.get(1).getItems()).isEmpty();
+    }
+
+    @Test
+    void forEach_FiltersByStatus() {
+        List<Order> streamed = new ArrayList<>();
+
+        orderStreamRepository.forEach(OrderStatus.FULFILLED, streamed::add);
+
+        assertThat(streamed).singleElement().satisfies(order -> {
+            assertThat(order.getId()).isEqualTo(fulfilled.getId());
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.FULFILLED);
+            assertThat(order.getItems()).extracting(OrderItem::getQuantity).containsExactly(3);
+        });
+    }
+
+    private static Order createOrder(OrderStatus status, String... skus) {
+        Order order = new Order();
+        order.setCustomerEmail("stream@example.com");
+        order.setStatus(status);
+        List<OrderItem> items = new ArrayList<>();
+        for (String sku : skus) {
+            OrderItem item = new OrderItem();
+            item.setSku(sku);
+            item.setQuantity(3);
+            item.setOrder(order);
+            items.add(item);
+        }
+        order.setItems(items);
+        return order;
+    }
+}
@@ -0,0 +1,42 @@
+package com.itccompliance.oi.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread. Register it with
+ * {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} and wrap the code
+ * under test in {@link #reset()} and {@link #count()}; statements from scheduler threads are not
+ * counted. For code spread over several threads, {@link #countAll(String)} counts the statements
+ * of every thread that contain a fragment of SQL since {@link #resetAll()}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Integer> STATEMENTS = ThreadLocal.withInitial(() -> 0);
+    private static final Queue<String> ALL_STATEMENTS = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.set(STATEMENTS.get() + 1);
+        ALL_STATEMENTS.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        STATEMENTS.set(0);
+    }
+
+    public static int count() {
+        return STATEMENTS.get();
+    }
+
+    public static void resetAll() {
+        ALL_STATEMENTS.clear();
+    }
+
+    public static long countAll(String fragment) {
+        return ALL_STATEMENTS.stream().filter(sql -> sql.contains(fragment)).count();
+    }
+}
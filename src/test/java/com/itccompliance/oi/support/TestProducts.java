@@ -0,0 +1,23 @@
+package com.itccompliance.oi.support;
+
+import com.itccompliance.oi.domain.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Unsaved products for tests that only care about a SKU and its stock.
+ */
+public final class TestProducts {
+
+    private TestProducts() {
+    }
+
+    public static Product createProduct(String sku, int quantity) {
+        Product product = new Product();
+        product.setSku(sku);
+        product.setName("Test Product " + sku);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setAvailableQuantity(quantity);
+        return product;
+    }
+}